@@ -58,3 +58,7 @@ java {
 tasks.withType<JavaCompile> {
     options.encoding = "UTF-8"
 }
+
+tasks.withType<Test> {
+    useJUnitPlatform()
+}
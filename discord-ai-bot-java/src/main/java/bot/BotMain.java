@@ -1,11 +1,21 @@
 package bot;
 
 import bot.ai.GPTClient;
+import bot.api.CatalogSync;
+import storage.Cluster;
+import storage.ResumeStore;
+import config.BotConfig;
 import net.dv8tion.jda.api.JDABuilder;
 import net.dv8tion.jda.api.entities.Activity;
 import net.dv8tion.jda.api.requests.GatewayIntent;
+import net.dv8tion.jda.api.sharding.DefaultShardManagerBuilder;
+import net.dv8tion.jda.api.sharding.ShardManager;
+import net.dv8tion.jda.api.utils.ChunkingFilter;
+import net.dv8tion.jda.api.utils.MemberCachePolicy;
+import net.dv8tion.jda.api.utils.cache.CacheFlag;
 
 import javax.security.auth.login.LoginException;
+import java.util.EnumSet;
 
 /**
  * This is the main entry point for the Discord bot.
@@ -35,24 +45,109 @@ public class BotMain {
             gptClient = new GPTClient(openAiKey); // This enables GPT-based features
         }
 
-        // 4. Build the JDA Discord client with required configuration
-        JDABuilder builder = JDABuilder.createDefault(discordToken)
-                // Enable gateway intents for message handling in both DMs and servers
-                .enableIntents(
-                        GatewayIntent.GUILD_MESSAGES,
-                        GatewayIntent.DIRECT_MESSAGES,
-                        GatewayIntent.MESSAGE_CONTENT
-                )
-                // Set the activity text shown in Discord as "Listening to !start"
-                .setActivity(Activity.listening("!start"));
-
-        // 5. Register your event listeners (handlers for commands and button interactions)
-        builder.addEventListeners(
+        // 4. Choose the gateway footprint: "light" = slash commands only, minimal intents and caches
+        boolean lightGateway = "light".equalsIgnoreCase(BotConfig.getString("BOT_GATEWAY_MODE", "full"));
+
+        // 5. Create your event listeners (handlers for commands and button interactions)
+        Object[] listeners = {
                 new CommandHandler(gptClient),   // Handles commands like !start, !ask, etc.
                 new InteractionHandler()         // Handles buttons and select menu interactions
-        );
+        };
+
+        // 6. Coordinate with other bot processes through Postgres (if CLUSTER_ENABLED is set)
+        if (!Cluster.start()) return; // Abort if the connection pool is too small for cluster mode
+
+        // 7. Login and start the bot, as a single session or as a range of shards
+        //    (slash commands are published by CommandHandler once shard 0 is ready)
+        if (BotConfig.getBoolean("BOT_SHARDING", false)) {
+            if (!startShards(discordToken, lightGateway, listeners)) return; // Abort on an invalid shard range
+        } else {
+            startSingle(discordToken, lightGateway, listeners);
+        }
+
+        // 8. Mirror the EXPERTS.AI catalog locally in the background (if CATALOG_SYNC_ENABLED is set),
+        //    notifying students about new matching opportunities (if PUSH_MATCHING_ENABLED is set)
+        PushMatcher.start();
+        CatalogSync.start();
+
+        // 9. Periodically remove stored resumes that no profile references any more
+        ResumeStore.start();
+
+        // 10. Restore registrations in progress and start expiring abandoned ones
+        RegistrationStore.start();
+    }
 
-        // 6. Login and start the bot
+    /**
+     * Builds one JDA session that receives the events of every guild.
+     */
+    private static void startSingle(String token, boolean light, Object[] listeners) {
+        JDABuilder builder;
+        if (light) {
+            // Slash commands only: no guild message events or content, no member/presence caches.
+            // DMs still arrive with content, which the registration and CV upload flows need;
+            // GUILDS keeps the guild and channel cache that the announcer and /clean rely on.
+            builder = JDABuilder.createLight(token, GatewayIntent.GUILDS, GatewayIntent.DIRECT_MESSAGES)
+                    .setMemberCachePolicy(MemberCachePolicy.NONE)
+                    .setChunkingFilter(ChunkingFilter.NONE)
+                    .disableCache(EnumSet.allOf(CacheFlag.class))
+                    .setActivity(Activity.listening("/fetch"));
+            System.out.println("🪶 Using the light gateway mode (slash commands only)");
+        } else {
+            builder = JDABuilder.createDefault(token)
+                    // Enable gateway intents for message handling in both DMs and servers
+                    .enableIntents(
+                            GatewayIntent.GUILD_MESSAGES,
+                            GatewayIntent.DIRECT_MESSAGES,
+                            GatewayIntent.MESSAGE_CONTENT
+                    )
+                    // Set the activity text shown in Discord as "Listening to !start"
+                    .setActivity(Activity.listening("!start"));
+        }
+        builder.addEventListeners(listeners);
         builder.build();
     }
+
+    /**
+     * Builds a ShardManager for the shards this process owns. SHARD_TOTAL is the shard count of the
+     * whole bot (-1 = Discord's recommendation); SHARD_MIN and SHARD_MAX select this process's range,
+     * so several processes can split the shards between them. DMs always arrive on shard 0.
+     *
+     * @return false if the shard settings are inconsistent and nothing was started
+     */
+    private static boolean startShards(String token, boolean light, Object[] listeners) {
+        int total = BotConfig.getInt("SHARD_TOTAL", -1);
+        int min = BotConfig.getInt("SHARD_MIN", -1);
+        int max = BotConfig.getInt("SHARD_MAX", -1);
+
+        DefaultShardManagerBuilder builder;
+        if (light) {
+            builder = DefaultShardManagerBuilder.createLight(token, GatewayIntent.GUILDS, GatewayIntent.DIRECT_MESSAGES)
+                    .setMemberCachePolicy(MemberCachePolicy.NONE)
+                    .setChunkingFilter(ChunkingFilter.NONE)
+                    .disableCache(EnumSet.allOf(CacheFlag.class))
+                    .setActivity(Activity.listening("/fetch"));
+        } else {
+            builder = DefaultShardManagerBuilder.createDefault(token)
+                    .enableIntents(
+                            GatewayIntent.GUILD_MESSAGES,
+                            GatewayIntent.DIRECT_MESSAGES,
+                            GatewayIntent.MESSAGE_CONTENT
+                    )
+                    .setActivity(Activity.listening("!start"));
+        }
+        builder.setShardsTotal(total);
+        if (min >= 0 && max >= min) {
+            // An explicit range needs an explicit total, so every process agrees on the guild split
+            if (total <= max) {
+                System.err.println("❌ SHARD_TOTAL must be set and greater than SHARD_MAX when a shard range is given.");
+                return false;
+            }
+            builder.setShards(min, max);
+        }
+        builder.addEventListeners(listeners);
+        ShardManager shards = builder.build();
+        System.out.println("🧩 Started " + (min >= 0 && max >= min ? "shards " + min + "-" + max : "all shards")
+                + " of " + (total > 0 ? total : "the recommended number") + " (" + shards.getShards().size() + " local)");
+        return true;
+    }
 }
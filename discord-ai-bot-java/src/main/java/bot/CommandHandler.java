@@ -1,30 +1,49 @@
 package bot;
 
+import bot.ai.AskContextBuilder;
+import bot.ai.CvAnalysisCache;
+import bot.ai.CvAnalysisCache.CvAnalysis;
+import bot.ai.CvPipeline;
+import bot.ai.LenientJson;
 import bot.ai.GPTClient;
+import config.BotConfig;
+import net.dv8tion.jda.api.Permission;
 import net.dv8tion.jda.api.entities.User;
 import net.dv8tion.jda.api.entities.channel.ChannelType;
-import net.dv8tion.jda.api.entities.channel.concrete.TextChannel;
+import net.dv8tion.jda.api.entities.channel.middleman.MessageChannel;
+import net.dv8tion.jda.api.events.interaction.command.SlashCommandInteractionEvent;
 import net.dv8tion.jda.api.events.message.MessageReceivedEvent;
 import net.dv8tion.jda.api.events.session.ReadyEvent;
 import net.dv8tion.jda.api.hooks.ListenerAdapter;
+import net.dv8tion.jda.api.interactions.commands.DefaultMemberPermissions;
+import net.dv8tion.jda.api.interactions.commands.OptionType;
+import net.dv8tion.jda.api.interactions.commands.build.CommandData;
+import net.dv8tion.jda.api.interactions.commands.build.Commands;
 import net.dv8tion.jda.api.interactions.components.buttons.Button;
 import net.dv8tion.jda.api.interactions.components.selections.StringSelectMenu;
 
 //import net.dv8tion.jda.api.Permission.MESSAGE_MANAGE;
 
 import org.jetbrains.annotations.NotNull;
+import storage.ResumeStore;
 import storage.StudentDAO;
+import util.PdfExtractionPool;
 import util.PdfUtils;
 import com.google.gson.JsonArray;
 import com.google.gson.JsonElement;
 import com.google.gson.JsonObject;
-import com.google.gson.JsonParser;
+import com.google.gson.JsonParseException;
 import storage.OpportunityDAO;
 
 
 import java.io.File;
 import java.io.IOException;
+import java.nio.file.Path;
 import java.util.*;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeoutException;
 
 /**
  * This class handles message events and command processing in both public and private Discord channels.
@@ -33,28 +52,40 @@ import java.util.*;
 public class CommandHandler extends ListenerAdapter {
 
     private final GPTClient gpt;
-    private static final Map<String, Integer> userSteps = new HashMap<>(); // Tracks the registration step per user
+    private final CvPipeline cvPipeline;
+    private final AskContextBuilder askContextBuilder = new AskContextBuilder();
+
+    // Stream !ask answers into a progressively edited message instead of waiting for the full reply
+    private static final boolean GPT_STREAMING = BotConfig.getBoolean("GPT_STREAMING", true);
+    private static final long STREAM_EDIT_INTERVAL_MS = Math.max(250, BotConfig.getLong("GPT_STREAM_EDIT_INTERVAL_MS", 1000));
 
     // Begin the registration process for a user
     public static void startRegistrationFor(String userId) {
-        userSteps.put(userId, 1);
+        RegistrationStore.begin(userId);
     }
 
     public CommandHandler(GPTClient gpt) {
         this.gpt = gpt;
+        this.cvPipeline = (gpt != null) ? new CvPipeline(gpt) : null;
     }
 
     // Runs when the bot is ready and connected to Discord
     @Override
     public void onReady(@NotNull ReadyEvent event) {
         System.out.println("✅ Bot is online as " + event.getJDA().getSelfUser().getAsTag());
-        for (var guild : event.getJDA().getGuilds()) {
-            if (guild.getDefaultChannel() instanceof TextChannel channel && channel.canTalk()) {
-                channel.sendMessage("👋 **JOBIFY CVUT Bot is now online and ready to help!**")
-                        .setActionRow(Button.primary("start", "🚀 Get Started"))
-                        .queue();
-            }
+
+        // Commands are global, so only the session or process owning shard 0 publishes them
+        if (event.getJDA().getShardInfo().getShardId() == 0) {
+            event.getJDA().updateCommands().addCommands(slashCommands()).queue(
+                    commands -> System.out.println("✅ Registered " + commands.size() + " slash commands"),
+                    error -> System.out.println("⚠️ Failed to register slash commands: " + error.getMessage()));
         }
+
+        // Post the "now online" message to guilds gradually, in the background
+        StartupAnnouncer.announce(event.getJDA());
+
+        // Opportunity digests are sent as DMs through the first ready session
+        PushMatcher.attach(event.getJDA());
     }
 
     // Handles all messages received in public or private channels
@@ -65,9 +96,12 @@ public class CommandHandler extends ListenerAdapter {
         String userId = event.getAuthor().getId();
         String content = event.getMessage().getContentRaw().trim();
 
-        // Command to check if bot is online
+        // Command to check if bot is online; the load report is only shown in DMs
         if (content.equalsIgnoreCase("!status")) {
-            event.getChannel().sendMessage("✅ Bot is operational.").queue();
+            String reply = event.isFromGuild()
+                    ? "✅ Bot is operational."
+                    : "✅ Bot is operational.\n```\n" + loadReport() + "\n```";
+            event.getChannel().sendMessage(reply).queue();
             return;
         }
 
@@ -115,53 +149,9 @@ public class CommandHandler extends ListenerAdapter {
 
             // Fetch jobs based on user profile
             if (content.equalsIgnoreCase("!fetch")) {
-                try {
-                    Map<String, String> profile = StudentDAO.getStudentProfile(userId);
-
-                    if (profile == null || profile.get("Skills") == null || profile.get("Career Interest") == null) {
-                        event.getChannel().sendMessage("❗ You need to complete your profile first.").queue();
-                        return;
-                    }
-
-                    String skills = profile.get("Skills");
-                    String interest = profile.get("Career Interest");
-
-                    Set<bot.api.OpportunityClient.Opportunity> results =
-                            bot.api.OpportunityClient.searchMultipleKeywords(skills + " " + interest);
-                    for (var opp : results) {
-                        System.out.println("🔍 Opportunity from API: " + opp.id + " | " + opp.title);
-                    }
-
-                    if (results.isEmpty()) {
-                        event.getChannel().sendMessage("😢 No opportunities found for your profile.").queue();
-                    } else {
-                        event.getChannel().sendMessage("🎯 Found " + results.size() + " opportunities for you:").queue();
-                        for (var opp : results) {
-                            if (!opp.url.isBlank()) {
-                                event.getChannel()
-                                        .sendMessageEmbeds(opp.toEmbed())
-                                        .setActionRow(Button.link(opp.url, "📩 Apply"))
-                                        .queue();
-                            } else {
-                                event.getChannel().sendMessageEmbeds(opp.toEmbed()).queue();
-                            }
-
-                            try {
-                                if (!storage.OpportunityDAO.existsForUser(opp, userId)) {
-                                    storage.OpportunityDAO.insertForUser(opp, userId);
-                                    System.out.println("✅ Opportunity saved to DB for " + userId);
-                                } else {
-                                    System.out.println("🔁 This opportunity already exists for " + userId);
-                                }
-                            } catch (Exception e) {
-                                e.printStackTrace();
-                            }
-                        }
-                    }
-
-                } catch (Exception e) {
-                    e.printStackTrace();
-                    event.getChannel().sendMessage("❌ Error fetching opportunities: " + e.getMessage()).queue();
+                boolean accepted = HandlerExecutor.submit("!fetch", () -> fetchOpportunities(event.getChannel(), userId));
+                if (!accepted) {
+                    event.getChannel().sendMessage(HandlerExecutor.busyMessage()).queue();
                 }
                 return;
             }
@@ -171,96 +161,205 @@ public class CommandHandler extends ListenerAdapter {
                 String question = content.substring(5).trim();
                 event.getChannel().sendTyping().queue();
 
-                userId = event.getAuthor().getId();
-                StringBuilder profileInfo = new StringBuilder();
-                StringBuilder opportunitiesInfo = new StringBuilder();
+                boolean accepted = HandlerExecutor.submit("!ask", () -> answerQuestion(event.getChannel(), userId, question));
+                if (!accepted) {
+                    event.getChannel().sendMessage(HandlerExecutor.busyMessage()).queue();
+                }
+                return;
+            }
 
-                try {
-                    // 1. Student profile
-                    var profileData = StudentDAO.getStudentProfile(userId);
-                    if (profileData != null && !profileData.isEmpty()) {
-                        profileInfo.append("📄 Student Profile:\n");
-                        profileData.forEach((key, value) -> {
-                            if (value != null && !value.isBlank()) {
-                                profileInfo.append("- ").append(key).append(": ").append(value).append("\n");
-                            }
-                        });
-                    }
 
-                    // 2. Assigned opportunities
-                    var opportunities = OpportunityDAO.getAllForUser(userId);
-                    if (opportunities != null && !opportunities.isEmpty()) {
-                        opportunitiesInfo.append("📌 Assigned Opportunities:\n");
-                        for (var opp : opportunities) {
-                            opportunitiesInfo.append(formatOpportunity(opp));
-                        }
-                    }
 
-                } catch (Exception e) {
-                    e.printStackTrace(); // Log error, but continue
-                }
 
-                // Build the unified prompt
-                List<Map<String, String>> messages = new ArrayList<>();
-                messages.add(Map.of("role", "system", "content",
-                        "You are an AI career assistant in a Discord bot called Jobify CVUT. "
-                                + "You help students at FIT ČVUT find the best job opportunities from the opportunities provided. "
-                                + "Always be helpful, friendly, and use natural, engaging language. "
-                                + "Focus on career guidance, internships, CVs, and job matching based on their profile."
-                ));
-
-                StringBuilder fullPrompt = new StringBuilder();
-                if (!profileInfo.isEmpty()) {
-                    fullPrompt.append("📄 Here is my student profile:\n").append(profileInfo).append("\n");
-                }
-                if (!opportunitiesInfo.isEmpty()) {
-                    fullPrompt.append("📌 These are the job opportunities assigned to me:\n").append(opportunitiesInfo).append("\n");
-                }
-                fullPrompt.append("💬 My question is: ").append(question);
 
-                messages.add(Map.of("role", "user", "content", fullPrompt.toString()));
 
-                // Debug log
-                System.out.println("🧠 Final prompt to GPT:");
-                messages.forEach(m -> System.out.println(m.get("role") + " ➜ " + m.get("content")));
 
-                try {
-                    String aiReply = gpt.ask(messages, "gpt-3.5-turbo");
 
-                    // 💬 Split response if needed
-                    int maxLength = 2000;
-                    for (int i = 0; i < aiReply.length(); i += maxLength) {
-                        int end = Math.min(aiReply.length(), i + maxLength);
-                        event.getChannel().sendMessage(aiReply.substring(i, end)).queue();
-                    }
+            // Handle step-based registration (email, then name); the skill and position steps use menus.
+            // The step lookup runs on the handler pool too, since in cluster mode it is a database query.
+            boolean accepted = HandlerExecutor.submit("registration_step", () -> {
+                RegistrationStore.Step step = RegistrationStore.get(userId);
+                if (step == RegistrationStore.Step.EMAIL) {
+                    handleEmailStep(event, userId, content);
+                } else if (step == RegistrationStore.Step.NAME) {
+                    handleNameStep(event, userId, content);
+                }
+            });
+            if (!accepted) {
+                event.getChannel().sendMessage(HandlerExecutor.busyMessage()).queue();
+            }
+        }
+    }
+
+    /**
+     * Slash command equivalents of the "!" commands. With BOT_GATEWAY_MODE=light the bot no longer
+     * receives guild message content, so these are the only way to reach the commands from a server.
+     */
+    public static List<CommandData> slashCommands() {
+        return List.of(
+                Commands.slash("status", "Check that the bot is online and show its load"),
+                Commands.slash("clean", "Delete recent messages in this channel")
+                        .addOption(OptionType.INTEGER, "count", "Number of messages to delete (1-100)", true)
+                        .setGuildOnly(true)
+                        // Only shown to members who can manage messages (moderators)
+                        .setDefaultPermissions(DefaultMemberPermissions.enabledFor(Permission.MESSAGE_MANAGE)),
+                Commands.slash("fetch", "Find opportunities matching your profile"),
+                Commands.slash("ask", "Ask the AI career assistant a question")
+                        .addOption(OptionType.STRING, "question", "Your question", true)
+        );
+    }
 
-                } catch (IOException e) {
-                    event.getChannel().sendMessage("⚠️ OpenAI error: " + e.getMessage()).queue();
+    // Handles the slash commands registered by slashCommands()
+    @Override
+    public void onSlashCommandInteraction(@NotNull SlashCommandInteractionEvent event) {
+        String userId = event.getUser().getId();
+
+        switch (event.getName()) {
+            case "status" -> event.reply("✅ Bot is operational.\n```\n" + loadReport() + "\n```")
+                    .setEphemeral(true).queue();
+
+            case "clean" -> {
+                int count = event.getOption("count").getAsInt();
+                if (count < 1 || count > 100) {
+                    event.reply("⚠️ Please choose a number between 1 and 100.").setEphemeral(true).queue();
+                    return;
                 }
+                event.deferReply(true).queue();
+                event.getChannel().getHistory().retrievePast(count).queue(messages -> {
+                    event.getChannel().purgeMessages(messages);
+                    event.getHook().sendMessage("✅ Deleted " + count + " messages.").queue();
+                });
+            }
+
+            // Profile-based commands stay private, as with their "!" versions
+            case "fetch", "ask" -> {
+                if (event.isFromGuild()) {
+                    event.reply("📬 Please use this command in a direct message with me.").setEphemeral(true).queue();
+                    return;
+                }
+                if (event.getName().equals("ask")) {
+                    if (gpt == null) {
+                        event.reply("⚠️ GPT features are disabled.").setEphemeral(true).queue();
+                        return;
+                    }
+                    String question = event.getOption("question").getAsString().trim();
+                    event.reply("❓ " + question).queue();
+                    if (!HandlerExecutor.submit("/ask", () -> answerQuestion(event.getChannel(), userId, question))) {
+                        event.getChannel().sendMessage(HandlerExecutor.busyMessage()).queue();
+                    }
+                } else {
+                    event.reply("🔎 Searching opportunities for your profile...").queue();
+                    if (!HandlerExecutor.submit("/fetch", () -> fetchOpportunities(event.getChannel(), userId))) {
+                        event.getChannel().sendMessage(HandlerExecutor.busyMessage()).queue();
+                    }
+                }
+            }
+
+            default -> event.reply("⚠️ Unknown command.").setEphemeral(true).queue();
+        }
+    }
+
+    // Searches opportunities for the user's profile, saves them and posts them to the channel
+    private void fetchOpportunities(MessageChannel channel, String userId) {
+        try {
+            Map<String, String> profile = StudentDAO.getStudentProfile(userId);
 
+            if (profile == null || profile.get("Skills") == null || profile.get("Career Interest") == null) {
+                channel.sendMessage("❗ You need to complete your profile first.").queue();
                 return;
             }
 
+            String skills = profile.get("Skills");
+            String interest = profile.get("Career Interest");
 
+            // Best matches first, limited to MATCH_TOP_K
+            List<bot.api.OpportunityClient.Opportunity> results =
+                    bot.api.OpportunityClient.searchTopMatches(skills + ", " + interest);
+            for (var opp : results) {
+                System.out.println("🔍 Opportunity from API: " + opp.id + " | " + opp.title);
+            }
 
+            if (results.isEmpty()) {
+                channel.sendMessage("😢 No opportunities found for your profile.").queue();
+            } else {
+                // Save all matches in one round trip (existing ones are skipped)
+                try {
+                    OpportunityDAO.upsertAllForUser(results, userId);
+                } catch (Exception e) {
+                    e.printStackTrace();
+                }
 
+                channel.sendMessage("🎯 Found " + results.size() + " opportunities for you:").queue();
+                // Up to 10 opportunities per message, with page buttons for the rest
+                ResultPager.send(channel, userId, results);
+            }
 
+        } catch (Exception e) {
+            e.printStackTrace();
+            channel.sendMessage("❌ Error fetching opportunities: " + e.getMessage()).queue();
+        }
+    }
 
+    // Answers a career question with GPT, using the user's profile and saved opportunities as context
+    private void answerQuestion(MessageChannel channel, String userId, String question) {
+        Map<String, String> profileData = null;
+        List<bot.api.OpportunityClient.Opportunity> opportunities = null;
 
+        try {
+            // 1. Student profile
+            profileData = StudentDAO.getStudentProfile(userId);
 
-            // Handle step-based registration (step 1: email, step 2: name)
-            int step = userSteps.getOrDefault(userId, -1);
-            switch (step) {
-                case 1 -> {
-                    handleEmailStep(event, userId, content);
-                    userSteps.put(userId, 2);
-                }
-                case 2 -> {
-                    handleNameStep(event, userId, content);
-                    userSteps.remove(userId);
-                }
-            }
+            // 2. Assigned opportunities
+            opportunities = OpportunityDAO.getAllForUser(userId);
+
+        } catch (Exception e) {
+            e.printStackTrace(); // Log error, but continue
+        }
+
+        // Build the unified prompt
+        List<Map<String, String>> messages = new ArrayList<>();
+        messages.add(Map.of("role", "system", "content",
+                "You are an AI career assistant in a Discord bot called Jobify CVUT. "
+                        + "You help students at FIT ČVUT find the best job opportunities from the opportunities provided. "
+                        + "Always be helpful, friendly, and use natural, engaging language. "
+                        + "Focus on career guidance, internships, CVs, and job matching based on their profile."
+        ));
+
+        // Most relevant opportunities first, trimmed to the configured token budget
+        messages.add(Map.of("role", "user", "content",
+                askContextBuilder.build(profileData, opportunities, question)));
+
+        // Debug log
+        System.out.println("🧠 Final prompt to GPT:");
+        messages.forEach(m -> System.out.println(m.get("role") + " ➜ " + m.get("content")));
+
+        if (GPT_STREAMING) {
+            // 💬 Show the answer while it is generated, editing the message as tokens arrive
+            StreamingReply reply = new StreamingReply(channel, STREAM_EDIT_INTERVAL_MS).start();
+            gpt.askStreamAsync(userId, messages, "gpt-3.5-turbo", reply::append)
+                    .whenComplete((answer, ex) -> {
+                        if (ex == null) {
+                            reply.finish();
+                        } else {
+                            reply.fail("⚠️ OpenAI error: " + rootMessage(ex));
+                        }
+                    });
+            return;
         }
+
+        gpt.askAsync(userId, messages, "gpt-3.5-turbo")
+                .thenAccept(aiReply -> {
+                    // 💬 Split response if needed
+                    int maxLength = 2000;
+                    for (int i = 0; i < aiReply.length(); i += maxLength) {
+                        int end = Math.min(aiReply.length(), i + maxLength);
+                        channel.sendMessage(aiReply.substring(i, end)).queue();
+                    }
+                })
+                .exceptionally(ex -> {
+                    channel.sendMessage("⚠️ OpenAI error: " + rootMessage(ex)).queue();
+                    return null;
+                });
     }
 
     // Validates and stores email, prompts for name
@@ -269,6 +368,8 @@ public class CommandHandler extends ListenerAdapter {
             event.getChannel().sendMessage("❗ Invalid email format, please retry.").queue();
             return;
         }
+        // Another message may already have completed this step
+        if (!RegistrationStore.advance(userId, RegistrationStore.Step.EMAIL, RegistrationStore.Step.NAME)) return;
         try {
             StudentDAO.upsertStudent(null, email, null, null, userId);
         } catch (Exception e) {
@@ -279,6 +380,7 @@ public class CommandHandler extends ListenerAdapter {
 
     // Stores name and proceeds to skills selection
     public static void handleNameStep(MessageReceivedEvent event, String userId, String name) {
+        if (!RegistrationStore.advance(userId, RegistrationStore.Step.NAME, RegistrationStore.Step.SKILLS)) return;
         try {
             StudentDAO.upsertStudent(name, null, null, null, userId);
         } catch (Exception e) {
@@ -325,19 +427,31 @@ public class CommandHandler extends ListenerAdapter {
     }
 
 
+    // Position menu options, value → label; each value is the canonical name of a SkillTaxonomy entry
+    static final Map<String, String> POSITION_OPTIONS = new LinkedHashMap<>();
+
+    static {
+        POSITION_OPTIONS.put("backend", "Backend");
+        POSITION_OPTIONS.put("frontend", "Frontend");
+        POSITION_OPTIONS.put("fullstack", "Full Stack");
+        POSITION_OPTIONS.put("mobile", "Mobile");
+        POSITION_OPTIONS.put("qa", "QA");
+        POSITION_OPTIONS.put("devops", "DevOps");
+        POSITION_OPTIONS.put("data", "Data Engineering / Analytics");
+    }
+
+    // Builds the position preference dropdown shared by the "!" and the button flows
+    static StringSelectMenu positionMenu(String placeholder) {
+        StringSelectMenu.Builder menu = StringSelectMenu.create("select_position")
+                .setPlaceholder(placeholder)
+                .setMaxValues(5);
+        POSITION_OPTIONS.forEach((value, label) -> menu.addOption(label, value));
+        return menu.build();
+    }
+
     // Sends position preference dropdown
     public static void promptPositionSelection(MessageReceivedEvent event) {
-        StringSelectMenu positionMenu = StringSelectMenu.create("select_position")
-                .setPlaceholder("📌 Select up to 5 positions")
-                .setMaxValues(5)
-                .addOption("Backend", "backend")
-                .addOption("Frontend", "frontend")
-                .addOption("Full Stack", "fullstack")
-                .addOption("Mobile", "mobile")
-                .addOption("QA", "qa")
-                .addOption("DevOps", "devops")
-                .addOption("Data Science", "data")
-                .build();
+        StringSelectMenu positionMenu = positionMenu("📌 Select up to 5 positions");
         event.getChannel()
                 .sendMessage("🧾 Which type of position are you seeking?")
                 .setActionRow(positionMenu)
@@ -390,109 +504,189 @@ public class CommandHandler extends ListenerAdapter {
             return;
         }
 
-        File dir = new File("resumes");
-        if (!dir.exists()) dir.mkdirs();
-        File out = new File(dir, userId + ".pdf");
+        if (attachment.getSize() > PdfUtils.MAX_FILE_BYTES) {
+            event.getChannel().sendMessage("❌ The PDF is too large (max "
+                    + (PdfUtils.MAX_FILE_BYTES / (1024 * 1024)) + " MB).").queue();
+            return;
+        }
+
+        Path incoming;
+        try {
+            incoming = ResumeStore.newIncomingFile();
+        } catch (IOException e) {
+            e.printStackTrace();
+            event.getChannel().sendMessage("❌ Error uploading PDF. Please try again.").queue();
+            return;
+        }
+        File out = incoming.toFile();
 
         attachment.downloadToFile(out)
                 .thenRun(() -> {
                     try {
-                        // 📄 Extract text from the uploaded PDF
-                        String extractedText = PdfUtils.extractText(out);
-                        StudentDAO.updateCvTextByDiscordId(userId, extractedText);
-                        System.out.println("✅ Text saved in DB for " + userId);
-
-                        // 🤖 Analyze the CV using GPT
-                        if (gpt != null) {
-                            // 🎯 Prompt GPT to extract key fields
-                            String prompt = """
-                        Analyze the following CV and return a JSON object with the following keys:
-                        - name (full name)
-                        - email (valid email address)
-                        - skills (array of skills, that are used in the projects or jobs, for example: JAVA, C)
-                        - positions (array of desired job roles like backend, frontend, devops, etc.)
-
-                        CV:
-                        --------------------
-                        """ + extractedText;
-
-                            List<Map<String, String>> messages = List.of(
-                                    Map.of("role", "user", "content", prompt)
-                            );
-
-                            String response = gpt.ask(messages, "gpt-3.5-turbo");
-                            JsonObject json = JsonParser.parseString(response).getAsJsonObject();
-
-                            String name = json.has("name") && !json.get("name").isJsonNull()
-                                    ? json.get("name").getAsString()
-                                    : null;
-
-                            String email = json.has("email") && !json.get("email").isJsonNull()
-                                    ? json.get("email").getAsString()
-                                    : null;
-
-                            String skills = json.has("skills") && json.get("skills").isJsonArray()
-                                    ? String.join(", ", toList(json.get("skills").getAsJsonArray()))
-                                    : null;
-
-                            String positions = json.has("positions") && json.get("positions").isJsonArray()
-                                    ? String.join(", ", toList(json.get("positions").getAsJsonArray()))
-                                    : null;
-
-
-                            StudentDAO.upsertStudent(name, email, skills, positions, userId);
-                            System.out.println("✅ Profile updated using AI.");
-
-                            // 📊 Ask GPT for rating and suggestions
-                            String ratingPrompt = """
-                        You are a career advisor. Read the following CV and evaluate its overall quality.
-                        Return a JSON object with two fields:
-                        - rating: a number between 1 and 10 (10 = excellent)
-                        - feedback: a list of 2–5 suggestions to improve the CV.
-
-                        CV:
-                        --------------------
-                        """ + extractedText;
-
-                            List<Map<String, String>> ratingMessages = List.of(
-                                    Map.of("role", "user", "content", ratingPrompt)
-                            );
-
-                            String ratingResponse = gpt.ask(ratingMessages, "gpt-3.5-turbo");
-                            JsonObject ratingJson = JsonParser.parseString(ratingResponse).getAsJsonObject();
-
-                            int rating = ratingJson.get("rating").getAsInt();
-                            List<String> feedbackList = toList(ratingJson.get("feedback").getAsJsonArray());
-
-                            // 📝 Format and send feedback to the user
-                            StringBuilder feedbackMsg = new StringBuilder("📝 **CV Rating: " + rating + "/10**\n");
-                            feedbackMsg.append("💡 **Suggestions to improve your CV:**\n");
-                            for (String tip : feedbackList) {
-                                feedbackMsg.append("- ").append(tip).append("\n");
-                            }
-
-                            // ✅ Send the feedback message before the final confirmation
-                            event.getChannel().sendMessage(feedbackMsg.toString()).queue();
-                        }
-
-                        // 📬 Final confirmation and main menu
-                        event.getChannel().sendMessage("✅ PDF resume received and processed.")
-                                .queue(msg -> CommandHandler.showMainMenu(event.getAuthor()));
-
+                        // 💾 Keep one compressed copy per distinct file; its hash also keys the analysis cache
+                        String pdfHash = ResumeStore.put(incoming);
+                        ResumeStore.assign(userId, pdfHash);
+
+                        // 🔑 Identical uploads reuse the stored analysis instead of calling GPT again;
+                        // the text is still extracted, since the cache keeps no CV text
+                        CvAnalysis cached = CvAnalysisCache.findByPdfHash(pdfHash);
+
+                        // 📄 Extract text from the uploaded PDF on the PDF worker pool
+                        PdfExtractionPool.extractText(out)
+                                .whenComplete((text, ex) -> out.delete())
+                                .thenAccept(extractedText -> {
+                                    try {
+                                        processCvText(event, userId, pdfHash, extractedText, cached);
+                                    } catch (Exception e) {
+                                        throw new CompletionException(e);
+                                    }
+                                })
+                                .exceptionally(ex -> {
+                                    Throwable cause = (ex.getCause() != null) ? ex.getCause() : ex;
+                                    String message = (cause instanceof RejectedExecutionException)
+                                            ? "⏳ " + cause.getMessage()
+                                            : (cause instanceof TimeoutException)
+                                            ? "⏱️ Reading your PDF took too long. Please try a smaller or text-based PDF."
+                                            : "⚠️ Error processing your CV.";
+                                    if (!(cause instanceof RejectedExecutionException)) ex.printStackTrace();
+                                    event.getChannel().sendMessage(message)
+                                            .queue(msg -> CommandHandler.showMainMenu(event.getAuthor()));
+                                    return null;
+                                });
 
                     } catch (Exception e) {
                         e.printStackTrace();
+                        out.delete();
                         event.getChannel().sendMessage("⚠️ Error processing your CV.")
                                 .queue(msg -> CommandHandler.showMainMenu(event.getAuthor()));
                     }
                 })
                 .exceptionally(ex -> {
+                    out.delete();
                     event.getChannel().sendMessage("❌ Error uploading PDF. Please try again.").queue();
                     return null;
                 });
     }
 
+    // Saves the CV text, then reuses a cached analysis or asks GPT for a new one
+    private void processCvText(MessageReceivedEvent event, String userId, String pdfHash,
+                               String extractedText, CvAnalysis cached) throws Exception {
+        String textHash = CvAnalysisCache.sha256(extractedText);
+        if (cached == null) cached = CvAnalysisCache.findByTextHash(pdfHash, textHash);
 
+        StudentDAO.updateCvTextByDiscordId(userId, extractedText);
+        System.out.println("✅ Text saved in DB for " + userId);
+
+        if (cached != null) {
+            System.out.println("⚡ Reusing cached CV analysis for " + userId);
+            applyProfile(userId, cached.profileJson());
+            sendCvFeedback(event, formatFeedback(cached.ratingJson()));
+            return;
+        }
+
+        // 🤖 Analyze the CV using GPT
+        if (gpt == null) {
+            event.getChannel().sendMessage("✅ PDF resume received and processed.")
+                    .queue(msg -> CommandHandler.showMainMenu(event.getAuthor()));
+            return;
+        }
+
+        // 🎯 Extract the profile and rate the CV (one combined or two concurrent GPT requests)
+        cvPipeline.analyze(userId, extractedText)
+                .thenApply(result -> {
+                    try {
+                        applyProfile(userId, result.profileJson());
+                    } catch (Exception e) {
+                        throw new CompletionException(e);
+                    }
+                    return new CvAnalysis(pdfHash, textHash, result.profileJson(), result.ratingJson());
+                })
+                .thenAccept(analysis -> {
+                    // Only answers that parsed are worth remembering
+                    String feedback = formatFeedback(analysis.ratingJson());
+                    CvAnalysisCache.store(analysis);
+                    sendCvFeedback(event, feedback);
+                })
+                .exceptionally(ex -> {
+                    ex.printStackTrace();
+                    event.getChannel().sendMessage("⚠️ Error processing your CV.")
+                            .queue(msg -> CommandHandler.showMainMenu(event.getAuthor()));
+                    return null;
+                });
+    }
+
+
+
+    // Load of the background executors, shown by !status in DMs and by the ephemeral /status
+    private String loadReport() {
+        StringBuilder report = new StringBuilder(HandlerExecutor.getStats().toString());
+        if (gpt != null) report.append("\n").append(gpt.getQueueStats());
+        report.append("\n").append(PdfExtractionPool.getStats());
+        report.append("\nmatch: coalesced=").append(MatchCoordinator.getCoalescedCount())
+                .append(" ").append(MatchCoordinator.getStats());
+        return report.toString();
+    }
+
+    // Unwraps CompletionException/ExecutionException to the message of the real failure
+    private static String rootMessage(Throwable t) {
+        while ((t instanceof CompletionException
+                || t instanceof ExecutionException) && t.getCause() != null) {
+            t = t.getCause();
+        }
+        return t.getMessage();
+    }
+
+    // Stores the name, email, skills and positions GPT extracted from a CV
+    private static void applyProfile(String userId, String profileJson) throws Exception {
+        JsonObject json = LenientJson.parseObject(profileJson);
+
+        String name = json.has("name") && !json.get("name").isJsonNull()
+                ? json.get("name").getAsString()
+                : null;
+
+        String email = json.has("email") && !json.get("email").isJsonNull()
+                ? json.get("email").getAsString()
+                : null;
+
+        String skills = json.has("skills") && json.get("skills").isJsonArray()
+                ? String.join(", ", toList(json.get("skills").getAsJsonArray()))
+                : null;
+
+        String positions = json.has("positions") && json.get("positions").isJsonArray()
+                ? String.join(", ", toList(json.get("positions").getAsJsonArray()))
+                : null;
+
+        StudentDAO.upsertStudent(name, email, skills, positions, userId);
+        PushMatcher.profileChanged(userId);
+        System.out.println("✅ Profile updated using AI.");
+    }
+
+    // Turns GPT's rating answer into the message shown to the student
+    private static String formatFeedback(String ratingResponse) {
+        JsonObject ratingJson = LenientJson.parseObject(ratingResponse);
+
+        StringBuilder feedbackMsg = new StringBuilder();
+        if (ratingJson.has("rating") && ratingJson.get("rating").isJsonPrimitive()) {
+            feedbackMsg.append("📝 **CV Rating: ").append(ratingJson.get("rating").getAsInt()).append("/10**\n");
+        }
+        if (ratingJson.has("feedback") && ratingJson.get("feedback").isJsonArray()) {
+            feedbackMsg.append("💡 **Suggestions to improve your CV:**\n");
+            for (String tip : toList(ratingJson.get("feedback").getAsJsonArray())) {
+                feedbackMsg.append("- ").append(tip).append("\n");
+            }
+        }
+        if (feedbackMsg.isEmpty()) {
+            throw new JsonParseException("Rating answer has neither rating nor feedback");
+        }
+        return feedbackMsg.toString();
+    }
+
+    // Sends the feedback, then the final confirmation and the main menu
+    private static void sendCvFeedback(MessageReceivedEvent event, String feedback) {
+        event.getChannel().sendMessage(feedback).queue();
+        event.getChannel().sendMessage("✅ PDF resume received and processed.")
+                .queue(msg -> CommandHandler.showMainMenu(event.getAuthor()));
+    }
 
     private static List<String> toList(JsonArray array) {
         List<String> list = new ArrayList<>();
@@ -503,26 +697,4 @@ public class CommandHandler extends ListenerAdapter {
     }
 
 
-    // Formats a single opportunity into a readable format for GPT
-    private String formatOpportunity(bot.api.OpportunityClient.Opportunity opp) {
-        return String.format("""
-        🔹 **Title**: %s
-        🏢 **Company**: %s
-        💼 **Type**: %s
-        📅 **Deadline**: %s
-        🏠 **Home Office**: %s
-        💰 **Salary**: %s
-        🛠 **Tech Req**: %s
-        📚 **Formal Req**: %s
-        📄 **Description**: %s
-        📞 **Contact**: %s
-
-        """,
-                opp.title, opp.company, opp.type, opp.deadline,
-                opp.homeOffice, opp.wage, opp.techReq, opp.formReq,
-                opp.description, opp.contactPerson
-        );
-    }
-
-
 }
@@ -1,11 +1,17 @@
 package bot.ai;
 
 import com.google.gson.*;
+import config.BotConfig;
 import okhttp3.*;
+import util.TokenBucket;
+import util.TokenEstimator;
 
+import java.io.BufferedReader;
 import java.io.IOException;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Consumer;
 
 /**
  * GPTClient is responsible for communicating with the OpenAI Chat Completions API.
@@ -22,6 +28,12 @@ public class GPTClient {
     // API key for authenticating with OpenAI
     private final String apiKey;
 
+    // Async requests: bounded worker pool with a fair per-user queue, plus upstream quota limiters
+    private final FairScheduler scheduler;
+    private final TokenBucket requestsPerMinute;
+    private final TokenBucket tokensPerMinute;
+    private final int expectedCompletionTokens;
+
     /**
      * Constructs a new GPTClient with the provided API key.
      *
@@ -31,6 +43,62 @@ public class GPTClient {
         this.http = new OkHttpClient();               // HTTP client initialization
         this.gson = new GsonBuilder().create();       // Gson for handling JSON
         this.apiKey = apiKey;                         // Store the API key for future requests
+
+        // Limits for askAsync/askStreamAsync; defaults fit a low OpenAI usage tier
+        this.scheduler = new FairScheduler("gpt",
+                Math.max(1, BotConfig.getInt("GPT_MAX_IN_FLIGHT", 4)),
+                Math.max(1, BotConfig.getInt("GPT_MAX_QUEUED_PER_USER", 3)));
+        this.requestsPerMinute = new TokenBucket(Math.max(1, BotConfig.getLong("GPT_REQUESTS_PER_MINUTE", 60)), 60_000);
+        this.tokensPerMinute = new TokenBucket(Math.max(1, BotConfig.getLong("GPT_TOKENS_PER_MINUTE", 90_000)), 60_000);
+        this.expectedCompletionTokens = Math.max(0, BotConfig.getInt("GPT_EXPECTED_COMPLETION_TOKENS", 500));
+    }
+
+    /**
+     * Queues a chat completion on the GPT worker pool instead of blocking the caller.
+     * Requests are served round-robin per user, at most GPT_MAX_IN_FLIGHT at a time,
+     * and only when the requests-per-minute and tokens-per-minute budgets allow it.
+     *
+     * @param userKey  whose queue the request joins (e.g. the Discord user ID)
+     * @param messages the list of messages in the conversation (each with "role" and "content")
+     * @param model    the model name to use (e.g., "gpt-3.5-turbo")
+     * @return future completed with the assistant's response content
+     */
+    public CompletableFuture<String> askAsync(String userKey, List<Map<String, String>> messages, String model) {
+        return scheduler.submit(userKey, () -> {
+            awaitQuota(messages);
+            return ask(messages, model);
+        });
+    }
+
+    /**
+     * Queues a streaming chat completion on the GPT worker pool (see askAsync and askStream).
+     * The callback runs on the worker thread.
+     */
+    public CompletableFuture<String> askStreamAsync(String userKey, List<Map<String, String>> messages, String model,
+                                                    Consumer<String> onDelta) {
+        return scheduler.submit(userKey, () -> {
+            awaitQuota(messages);
+            return askStream(messages, model, onDelta);
+        });
+    }
+
+    /**
+     * @return running and queued request counts of the async pool
+     */
+    public String getQueueStats() {
+        return scheduler.toString();
+    }
+
+    /**
+     * Blocks until one request and the estimated tokens of this conversation fit the per-minute quotas.
+     */
+    private void awaitQuota(List<Map<String, String>> messages) throws InterruptedException {
+        long tokens = expectedCompletionTokens;
+        for (Map<String, String> msg : messages) {
+            tokens += TokenEstimator.estimate(msg.get("content")) + 4; // + per-message overhead
+        }
+        requestsPerMinute.acquire(1);
+        tokensPerMinute.acquire(tokens);
     }
 
     /**
@@ -43,36 +111,14 @@ public class GPTClient {
      */
     public String ask(List<Map<String, String>> messages, String model) throws IOException {
         // 1) Build the JSON payload for the request
-        JsonObject payload = new JsonObject();
-        payload.addProperty("model", model);          // Set the model to use (e.g., gpt-3.5-turbo)
-
-        JsonArray arr = new JsonArray();              // Array to hold the message history
-        for (Map<String, String> msg : messages) {
-            JsonObject obj = new JsonObject();
-            obj.addProperty("role", msg.get("role"));         // e.g., "user", "assistant", or "system"
-            obj.addProperty("content", msg.get("content"));   // actual text content
-            arr.add(obj);
-        }
-        payload.add("messages", arr);
-        String jsonPayload = payload.toString();      // Convert payload to JSON string
+        String jsonPayload = buildPayload(messages, model, false).toString();
 
         // 2) Debug: print the endpoint URL and the JSON payload
         System.out.println("🔗 OpenAI URL: " + ENDPOINT);
         System.out.println("📦 Payload: " + jsonPayload);
 
-        // 3) Create the request body with the JSON payload
-        RequestBody body = RequestBody.create(
-                jsonPayload,
-                MediaType.get("application/json; charset=utf-8")
-        );
-
-        // 4) Build the HTTP POST request with authorization header
-        Request request = new Request.Builder()
-                .url(ENDPOINT)                                     // API endpoint
-                .addHeader("Authorization", "Bearer " + apiKey)   // Authentication using bearer token
-                .addHeader("Content-Type", "application/json")    // Indicate we’re sending JSON
-                .post(body)                                       // Use POST method
-                .build();
+        // 3-4) Build the HTTP POST request with authorization header
+        Request request = buildRequest(jsonPayload);
 
         // 5) Execute the request and capture the response
         try (Response resp = http.newCall(request).execute()) {
@@ -98,4 +144,85 @@ public class GPTClient {
                     .trim();
         }
     }
+
+    /**
+     * Sends a chat completion request with {@code stream: true} and hands every content delta
+     * to the callback as soon as it arrives (server-sent events), instead of waiting for the full reply.
+     *
+     * @param messages the list of messages in the conversation (each with "role" and "content")
+     * @param model    the model name to use (e.g., "gpt-3.5-turbo")
+     * @param onDelta  receives each chunk of generated text, in order, on the calling thread
+     * @return the complete assistant response, trimmed
+     * @throws IOException if the HTTP call fails or returns a non-success status
+     */
+    public String askStream(List<Map<String, String>> messages, String model, Consumer<String> onDelta) throws IOException {
+        Request request = buildRequest(buildPayload(messages, model, true).toString());
+        System.out.println("🔗 OpenAI URL (stream): " + ENDPOINT);
+
+        StringBuilder full = new StringBuilder();
+        try (Response resp = http.newCall(request).execute()) {
+            if (!resp.isSuccessful() || resp.body() == null) {
+                throw new IOException("Unexpected response from OpenAI: " + resp.code());
+            }
+
+            // Each event is a line "data: {json}"; the stream ends with "data: [DONE]"
+            BufferedReader reader = new BufferedReader(resp.body().charStream());
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (!line.startsWith("data:")) continue;
+                String data = line.substring(5).trim();
+                if (data.equals("[DONE]")) break;
+
+                JsonObject chunk = gson.fromJson(data, JsonObject.class);
+                JsonArray choices = chunk.getAsJsonArray("choices");
+                if (choices == null || choices.isEmpty()) continue;
+
+                JsonObject delta = choices.get(0).getAsJsonObject().getAsJsonObject("delta");
+                if (delta == null || !delta.has("content") || delta.get("content").isJsonNull()) continue;
+
+                String text = delta.get("content").getAsString();
+                full.append(text);
+                onDelta.accept(text);
+            }
+        }
+        System.out.println("🔄 Streamed response length: " + full.length());
+        return full.toString().trim();
+    }
+
+    /**
+     * Builds the chat completion payload.
+     */
+    private JsonObject buildPayload(List<Map<String, String>> messages, String model, boolean stream) {
+        JsonObject payload = new JsonObject();
+        payload.addProperty("model", model);          // Set the model to use (e.g., gpt-3.5-turbo)
+        if (stream) payload.addProperty("stream", true);
+
+        JsonArray arr = new JsonArray();              // Array to hold the message history
+        for (Map<String, String> msg : messages) {
+            JsonObject obj = new JsonObject();
+            obj.addProperty("role", msg.get("role"));         // e.g., "user", "assistant", or "system"
+            obj.addProperty("content", msg.get("content"));   // actual text content
+            arr.add(obj);
+        }
+        payload.add("messages", arr);
+        return payload;
+    }
+
+    /**
+     * Builds the authenticated POST request carrying the given JSON payload.
+     */
+    private Request buildRequest(String jsonPayload) {
+        // Create the request body with the JSON payload
+        RequestBody body = RequestBody.create(
+                jsonPayload,
+                MediaType.get("application/json; charset=utf-8")
+        );
+
+        return new Request.Builder()
+                .url(ENDPOINT)                                     // API endpoint
+                .addHeader("Authorization", "Bearer " + apiKey)   // Authentication using bearer token
+                .addHeader("Content-Type", "application/json")    // Indicate we’re sending JSON
+                .post(body)                                       // Use POST method
+                .build();
+    }
 }
@@ -0,0 +1,166 @@
+package bot;
+
+import config.BotConfig;
+import net.dv8tion.jda.api.interactions.InteractionHook;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Runs the blocking part of event handlers (database queries, HTTP calls) away from JDA's event threads,
+ * so one slow upstream does not hold up every other user's messages and buttons.
+ * Uses one virtual thread per task when the JVM supports it (Java 21+), otherwise a fixed pool.
+ * Either way at most HANDLER_MAX_CONCURRENCY bodies run at once; further ones wait in a bounded
+ * queue, and once that is full new work is rejected so the user can be told to retry.
+ */
+public class HandlerExecutor {
+
+    /**
+     * Snapshot of the executor load.
+     */
+    public record Stats(String mode, int running, int queued, int maxConcurrency, int queueCapacity,
+                        long completed, long failed, long rejected) {
+
+        /**
+         * @return share of the worker slots in use, from 0.0 to 1.0
+         */
+        public double saturation() {
+            return (double) running / maxConcurrency;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("handlers (%s): running=%d/%d queued=%d/%d saturation=%.0f%% completed=%d failed=%d rejected=%d",
+                    mode, running, maxConcurrency, queued, queueCapacity, saturation() * 100, completed, failed, rejected);
+        }
+    }
+
+    private static final String BUSY_MESSAGE = "⏳ The bot is busy right now, please try again in a moment.";
+
+    private static final int MAX_CONCURRENCY = Math.max(1, BotConfig.getInt("HANDLER_MAX_CONCURRENCY", 16));
+    private static final int QUEUE_CAPACITY = Math.max(1, BotConfig.getInt("HANDLER_QUEUE_CAPACITY", 200));
+
+    private static final AtomicInteger running = new AtomicInteger();
+    private static final AtomicInteger queued = new AtomicInteger();
+    private static final AtomicLong completed = new AtomicLong();
+    private static final AtomicLong failed = new AtomicLong();
+    private static final AtomicLong rejected = new AtomicLong();
+
+    // Limits concurrent bodies in virtual-thread mode (the fixed pool limits itself)
+    private static final Semaphore slots = new Semaphore(MAX_CONCURRENCY);
+
+    private static final ExecutorService virtualThreads = BotConfig.getBoolean("HANDLER_VIRTUAL_THREADS", true)
+            ? createVirtualThreadExecutor()
+            : null;
+    private static final ExecutorService pool = (virtualThreads == null) ? createPool() : null;
+
+    /**
+     * Runs a handler body in the background.
+     *
+     * @param name short label used in error logs
+     * @param body the blocking work, including sending its replies
+     * @return false if the executor is saturated and the body was not accepted
+     */
+    public static boolean submit(String name, Runnable body) {
+        // The fixed pool enforces its own queue bound; virtual threads wait on the semaphore instead
+        if (virtualThreads != null && queued.get() >= QUEUE_CAPACITY) {
+            rejected.incrementAndGet();
+            System.out.println("⚠️ Handler executor saturated, rejected " + name);
+            return false;
+        }
+        queued.incrementAndGet();
+
+        Runnable task = () -> {
+            boolean acquired = false;
+            try {
+                if (virtualThreads != null) {
+                    slots.acquire();
+                    acquired = true;
+                }
+                queued.decrementAndGet();
+                running.incrementAndGet();
+                try {
+                    body.run();
+                    completed.incrementAndGet();
+                } catch (Throwable t) {
+                    failed.incrementAndGet();
+                    System.out.println("❌ Handler " + name + " failed: " + t);
+                    t.printStackTrace();
+                } finally {
+                    running.decrementAndGet();
+                }
+            } catch (InterruptedException e) {
+                queued.decrementAndGet();
+                Thread.currentThread().interrupt();
+            } finally {
+                if (acquired) slots.release();
+            }
+        };
+
+        try {
+            (virtualThreads != null ? virtualThreads : pool).execute(task);
+            return true;
+        } catch (RejectedExecutionException e) {
+            queued.decrementAndGet();
+            rejected.incrementAndGet();
+            System.out.println("⚠️ Handler executor saturated, rejected " + name);
+            return false;
+        }
+    }
+
+    /**
+     * Runs the body of an interaction that was already deferred. If the executor is saturated,
+     * the deferred reply is completed with a "busy" message instead.
+     *
+     * @param name short label used in error logs
+     * @param hook hook of the deferred interaction, used to send the replies
+     * @param body the blocking work, replying through the hook
+     */
+    public static void submit(String name, InteractionHook hook, Runnable body) {
+        if (!submit(name, body)) {
+            hook.sendMessage(BUSY_MESSAGE).setEphemeral(true).queue();
+        }
+    }
+
+    /**
+     * @return the text shown to users when work is rejected
+     */
+    public static String busyMessage() {
+        return BUSY_MESSAGE;
+    }
+
+    public static Stats getStats() {
+        return new Stats(virtualThreads != null ? "virtual" : "pool", running.get(), Math.max(0, queued.get()),
+                MAX_CONCURRENCY, QUEUE_CAPACITY, completed.get(), failed.get(), rejected.get());
+    }
+
+    /**
+     * Creates Executors.newVirtualThreadPerTaskExecutor() through reflection, so the code still
+     * compiles and runs on Java 17, where the method does not exist.
+     */
+    private static ExecutorService createVirtualThreadExecutor() {
+        try {
+            Method factory = Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+            ExecutorService executor = (ExecutorService) factory.invoke(null);
+            System.out.println("🧵 Handler executor uses virtual threads");
+            return executor;
+        } catch (ReflectiveOperationException | UnsupportedOperationException e) {
+            return null;
+        }
+    }
+
+    private static ExecutorService createPool() {
+        AtomicInteger counter = new AtomicInteger();
+        System.out.println("🧵 Handler executor uses a pool of " + MAX_CONCURRENCY + " threads");
+        return new ThreadPoolExecutor(MAX_CONCURRENCY, MAX_CONCURRENCY, 60L, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(QUEUE_CAPACITY),
+                r -> {
+                    Thread t = new Thread(r, "handler-" + counter.incrementAndGet());
+                    t.setDaemon(true);
+                    return t;
+                },
+                new ThreadPoolExecutor.AbortPolicy());
+    }
+}
@@ -1,6 +1,5 @@
 package bot;
 
-import bot.api.OpportunityClient;
 import net.dv8tion.jda.api.events.interaction.ModalInteractionEvent;
 import net.dv8tion.jda.api.interactions.modals.Modal;
 import net.dv8tion.jda.api.interactions.components.text.TextInput;
@@ -17,8 +16,9 @@ import storage.StudentDAO;
 import net.dv8tion.jda.api.EmbedBuilder;
 import java.util.List;
 import java.util.Map;
-import java.util.Set;
+import java.util.concurrent.CompletionException;
 import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.TimeUnit;
 import net.dv8tion.jda.api.interactions.components.ActionRow;
@@ -48,26 +48,31 @@ public class InteractionHandler extends ListenerAdapter {
 
             String discordId = event.getUser().getId();
 
-            FeedbackDAO dao = new FeedbackDAO();
-            try {
-                dao.insertFeedback(feedbackText, userId);
-            } catch (Exception e) {
-                throw new RuntimeException(e);
-            }
+            event.deferReply(true).queue();
+            HandlerExecutor.submit("feedback_modal", event.getHook(), () -> {
+                FeedbackDAO dao = new FeedbackDAO();
+                try {
+                    dao.insertFeedback(feedbackText, userId);
+                } catch (Exception e) {
+                    e.printStackTrace();
+                    event.getHook().sendMessage("❌ Your feedback could not be saved. Please try again later.").queue();
+                    return;
+                }
 
-            // Yıldızları gönder
-            event.getUser().openPrivateChannel().queue(channel -> {
-                channel.sendMessage("Thanks for your feedback! Please rate us:")
-                        .addActionRow(
-                                Button.secondary("star_1", "⭐"),
-                                Button.secondary("star_2", "⭐⭐"),
-                                Button.secondary("star_3", "⭐⭐⭐"),
-                                Button.secondary("star_4", "⭐⭐⭐⭐"),
-                                Button.secondary("star_5", "⭐⭐⭐⭐⭐")
-                        ).queue();
+                // Yıldızları gönder
+                event.getUser().openPrivateChannel().queue(channel -> {
+                    channel.sendMessage("Thanks for your feedback! Please rate us:")
+                            .addActionRow(
+                                    Button.secondary("star_1", "⭐"),
+                                    Button.secondary("star_2", "⭐⭐"),
+                                    Button.secondary("star_3", "⭐⭐⭐"),
+                                    Button.secondary("star_4", "⭐⭐⭐⭐"),
+                                    Button.secondary("star_5", "⭐⭐⭐⭐⭐")
+                            ).queue();
+                });
+
+                event.getHook().sendMessage("✅ Your feedback has been received!").queue();
             });
-
-            event.reply("✅ Your feedback has been received!").setEphemeral(true).queue();
         }
     }
 
@@ -81,16 +86,24 @@ public class InteractionHandler extends ListenerAdapter {
 
         String componentId = event.getComponentId();
 
+        if (componentId.startsWith(ResultPager.BUTTON_PREFIX)) {
+            ResultPager.handleButton(event);
+            return;
+        }
+
         if(componentId.startsWith("star_")) {
             int stars = Integer.parseInt(componentId.split("_")[1]);
             String userID = event.getUser().getId();
 
-            FeedbackDAO dao = new FeedbackDAO();
-            dao.updateStarsByDiscordId(userID, stars);
-
-
-            event.reply("⭐ Thanks! Your rating has been saved.").setEphemeral(true).queue(msg -> CommandHandler.showMainMenu(event.getUser()));
+            event.deferReply(true).queue();
+            HandlerExecutor.submit("star_rating", event.getHook(), () -> {
+                FeedbackDAO dao = new FeedbackDAO();
+                dao.updateStarsByDiscordId(userID, stars);
 
+                event.getHook().sendMessage("⭐ Thanks! Your rating has been saved.")
+                        .queue(msg -> CommandHandler.showMainMenu(event.getUser()));
+            });
+            return; // Rating buttons are not part of the switch below
         }
 
 
@@ -105,23 +118,27 @@ public class InteractionHandler extends ListenerAdapter {
             case "delete_profile" -> {
                 // Delete user profile and all related opportunities
                 event.deferReply(true).queue();
-                try {
-                    // 🗑️ First, delete all opportunities linked to this user
-                    OpportunityDAO.deleteAllForUser(userId);
-                    // 👤 Then, delete the user profile
-                    boolean deleted = StudentDAO.deleteProfileByDiscordId(userId);
-                    if (deleted) {
-                        event.getHook().sendMessage("✅ Your profile has been successfully deleted.")
-                                .queue(msg -> CommandHandler.showMainMenu(event.getUser()));
-                    } else {
-                        event.getHook().sendMessage("⚠️ No profile was found to delete.")
+                HandlerExecutor.submit("delete_profile", event.getHook(), () -> {
+                    try {
+                        // 🗑️ First, delete all opportunities linked to this user
+                        OpportunityDAO.deleteAllForUser(userId);
+                        // 👤 Then, delete the user profile
+                        boolean deleted = StudentDAO.deleteProfileByDiscordId(userId);
+                        RegistrationStore.clear(userId);
+                        PushMatcher.profileChanged(userId);
+                        if (deleted) {
+                            event.getHook().sendMessage("✅ Your profile has been successfully deleted.")
+                                    .queue(msg -> CommandHandler.showMainMenu(event.getUser()));
+                        } else {
+                            event.getHook().sendMessage("⚠️ No profile was found to delete.")
+                                    .queue(msg -> CommandHandler.showMainMenu(event.getUser()));
+                        }
+                    } catch (Exception e) {
+                        e.printStackTrace();
+                        event.getHook().sendMessage("❌ An error occurred while trying to delete your profile.")
                                 .queue(msg -> CommandHandler.showMainMenu(event.getUser()));
                     }
-                } catch (Exception e) {
-                    e.printStackTrace();
-                    event.getHook().sendMessage("❌ An error occurred while trying to delete your profile.")
-                            .queue(msg -> CommandHandler.showMainMenu(event.getUser()));
-                }
+                });
             }
             case "feedback" -> {
                 Modal feedbackModal = Modal.create("feedback_modal", "📝 Bot Feedback")
@@ -169,33 +186,35 @@ public class InteractionHandler extends ListenerAdapter {
 
             case "view_profile" -> {
                 event.deferReply(true).queue();
-                try {
-                    var data = StudentDAO.getStudentProfile(userId);
-                    if (data == null || data.isEmpty()) {
-                        event.getHook().sendMessage("⚠️ You don't have a profile yet. Select 'Create Profile' to start.")
-                                .queue(msg -> CommandHandler.showMainMenu(event.getUser()));
-                    } else {
-                        EmbedBuilder embed = new EmbedBuilder();
-                        embed.setTitle("👤 Your Profile");
-                        embed.setColor(0x5865F2); // Discord blurple
-
-                        if (data.get("Name") != null)
-                            embed.addField("🧑 Name", data.get("Name"), false);
-                        if (data.get("Email") != null)
-                            embed.addField("📧 Email", data.get("Email"), false);
-                        if (data.get("Skills") != null)
-                            embed.addField("🛠️ Skills", data.get("Skills"), false);
-                        if (data.get("Career Interest") != null)
-                            embed.addField("🎯 Career Interests", data.get("Career Interest"), false);
-
-                        event.getHook().sendMessageEmbeds(embed.build())
+                HandlerExecutor.submit("view_profile", event.getHook(), () -> {
+                    try {
+                        var data = StudentDAO.getStudentProfile(userId);
+                        if (data == null || data.isEmpty()) {
+                            event.getHook().sendMessage("⚠️ You don't have a profile yet. Select 'Create Profile' to start.")
+                                    .queue(msg -> CommandHandler.showMainMenu(event.getUser()));
+                        } else {
+                            EmbedBuilder embed = new EmbedBuilder();
+                            embed.setTitle("👤 Your Profile");
+                            embed.setColor(0x5865F2); // Discord blurple
+
+                            if (data.get("Name") != null)
+                                embed.addField("🧑 Name", data.get("Name"), false);
+                            if (data.get("Email") != null)
+                                embed.addField("📧 Email", data.get("Email"), false);
+                            if (data.get("Skills") != null)
+                                embed.addField("🛠️ Skills", data.get("Skills"), false);
+                            if (data.get("Career Interest") != null)
+                                embed.addField("🎯 Career Interests", data.get("Career Interest"), false);
+
+                            event.getHook().sendMessageEmbeds(embed.build())
+                                    .queue(msg -> CommandHandler.showMainMenu(event.getUser()));
+                        }
+                    } catch (Exception e) {
+                        e.printStackTrace();
+                        event.getHook().sendMessage("❌ Error retrieving profile.")
                                 .queue(msg -> CommandHandler.showMainMenu(event.getUser()));
                     }
-                } catch (Exception e) {
-                    e.printStackTrace();
-                    event.getHook().sendMessage("❌ Error retrieving profile.")
-                            .queue(msg -> CommandHandler.showMainMenu(event.getUser()));
-                }
+                });
             }
 
             case "create_profile" -> {
@@ -217,68 +236,50 @@ public class InteractionHandler extends ListenerAdapter {
             case "cv_no" -> {
                 // Initialize profile and start registration (email step)
                 event.deferReply(true).queue();
-                try {
-                    StudentDAO.upsertStudent(null, null, null, null, userId);
-                    CommandHandler.startRegistrationFor(userId);
-                    event.getHook().sendMessage("\uD83D\uDCE7 Please enter your email address.").queue();
-                } catch (Exception e) {
-                    e.printStackTrace();
-                    event.getHook().sendMessage("❌ Failed to initialize profile setup.").queue();
-                }
+                HandlerExecutor.submit("cv_no", event.getHook(), () -> {
+                    try {
+                        StudentDAO.upsertStudent(null, null, null, null, userId);
+                        CommandHandler.startRegistrationFor(userId);
+                        event.getHook().sendMessage("\uD83D\uDCE7 Please enter your email address.").queue();
+                    } catch (Exception e) {
+                        e.printStackTrace();
+                        event.getHook().sendMessage("❌ Failed to initialize profile setup.").queue();
+                    }
+                });
             }
 
             case "match_jobs" -> {
-                // Match job opportunities based on profile data
+                // Match job opportunities based on profile data; repeated clicks share one search
                 event.deferReply(true).queue();
-                try {
-                    var profile = StudentDAO.getStudentProfile(userId);
-
-                    if (profile == null || profile.get("Skills") == null || profile.get("Career Interest") == null) {
-                        event.getHook().sendMessage("❗ You need to complete your profile first.")
+                MatchCoordinator.match(userId).whenComplete((match, error) -> {
+                    if (error != null) {
+                        Throwable cause = (error instanceof CompletionException && error.getCause() != null) ? error.getCause() : error;
+                        if (cause instanceof RejectedExecutionException) {
+                            event.getHook().sendMessage(HandlerExecutor.busyMessage()).setEphemeral(true).queue();
+                            return;
+                        }
+                        cause.printStackTrace();
+                        event.getHook().sendMessage("❌ Error matching opportunities: " + cause.getMessage())
                                 .queue(msg -> CommandHandler.showMainMenu(event.getUser()));
                         return;
                     }
 
-                    String skills = profile.get("Skills");
-                    String interest = profile.get("Career Interest");
-
-                    Set<OpportunityClient.Opportunity> results =
-                            OpportunityClient.searchMultipleKeywords(skills + " " + interest);
-
-                    if (results.isEmpty()) {
+                    if (!match.profileComplete()) {
+                        event.getHook().sendMessage("❗ You need to complete your profile first.")
+                                .queue(msg -> CommandHandler.showMainMenu(event.getUser()));
+                    } else if (match.results().isEmpty()) {
                         event.getHook().sendMessage("😢 No opportunities found for your profile.")
                                 .queue(msg -> CommandHandler.showMainMenu(event.getUser()));
                     } else {
-                        event.getHook().sendMessage("🎯 Found " + results.size() + " opportunities for you:")
+                        event.getHook().sendMessage("🎯 Found " + match.results().size() + " opportunities for you:")
                                 .queue(msg -> {
-                                    for (var opp : results) {
-                                        try {
-                                            if (!OpportunityDAO.existsForUser(opp, userId)) {
-                                                OpportunityDAO.insertForUser(opp, userId);
-
-                                            }
-                                        } catch (Exception ex) {
-                                            ex.printStackTrace();
-                                        }
-
-                                        if (!opp.url.isBlank()) {
-                                            event.getChannel().sendMessageEmbeds(opp.toEmbed())
-                                                    .addActionRow(Button.link(opp.url, "📩 Apply"))
-                                                    .queue();
-                                        } else {
-                                            event.getChannel().sendMessageEmbeds(opp.toEmbed()).queue();
-                                        }
-                                    }
+                                    // Up to 10 opportunities per message, with page buttons for the rest
+                                    ResultPager.send(event.getChannel(), userId, match.results());
                                     // Show menu after listing jobs
                                     CommandHandler.showMainMenu(event.getUser());
                                 });
                     }
-
-                } catch (Exception e) {
-                    e.printStackTrace();
-                    event.getHook().sendMessage("❌ Error matching opportunities: " + e.getMessage())
-                            .queue(msg -> CommandHandler.showMainMenu(event.getUser()));
-                }
+                });
             }
 
             // Default case for unknown buttons
@@ -299,26 +300,20 @@ public class InteractionHandler extends ListenerAdapter {
                 // Store selected skills to user profile
                 List<String> values = event.getValues();
                 String skills = String.join(", ", values);
-                try {
-                    StudentDAO.upsertStudent(null, null, skills, null, userId);
-                } catch (Exception e) {
-                    e.printStackTrace();
-                }
-
-                event.reply("✅ Skills saved.").setEphemeral(true).queue();
+                event.deferReply(true).queue();
+                HandlerExecutor.submit("select_skills", event.getHook(), () -> {
+                    try {
+                        StudentDAO.upsertStudent(null, null, skills, null, userId);
+                        RegistrationStore.advance(userId, RegistrationStore.Step.SKILLS, RegistrationStore.Step.POSITIONS);
+                        PushMatcher.profileChanged(userId);
+                    } catch (Exception e) {
+                        e.printStackTrace();
+                    }
+                    event.getHook().sendMessage("✅ Skills saved.").queue();
+                });
 
                 // Prompt for position selection
-                StringSelectMenu posMenu = StringSelectMenu.create("select_position")
-                        .setPlaceholder("\uD83D\uDCCC Choose your preferred position")
-                        .setMaxValues(5)
-                        .addOption("Backend", "backend")
-                        .addOption("Frontend", "frontend")
-                        .addOption("Full Stack", "fullstack")
-                        .addOption("Mobile", "mobile")
-                        .addOption("QA", "qa")
-                        .addOption("DevOps", "devops")
-                        .addOption("Data Science", "data")
-                        .build();
+                StringSelectMenu posMenu = CommandHandler.positionMenu("\uD83D\uDCCC Choose your preferred position");
 
                 event.getChannel().sendMessage("\uD83D\uDCDD What type of position are you looking for?")
                         .setActionRow(posMenu)
@@ -327,42 +322,45 @@ public class InteractionHandler extends ListenerAdapter {
 
             case "select_position" -> {
                 event.deferReply(true).queue();
+                HandlerExecutor.submit("select_position", event.getHook(), () -> {
+                    List<String> selectedPositions = event.getValues();
+                    String joined = String.join(", ", selectedPositions);
+
+                    try {
+                        StudentDAO.upsertStudent(null, null, null, joined, userId); // Save positions
+                        RegistrationStore.clear(userId); // Registration flow complete
+                        PushMatcher.profileChanged(userId);
+
+                        event.getHook().sendMessage("✅ Positions saved: " + joined).queue(msg -> {
+
+                            // Crear un pequeño delay antes de abrir el DM
+                            ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor();
+                            scheduler.schedule(() -> {
+                                event.getUser().openPrivateChannel().queue(dm -> {
+                                    dm.sendMessage("✅ Your profile has been saved! What would you like to do next?")
+                                            .addActionRow(
+                                                    Button.primary("gpt_ask", "🤖 Ask GPT"),
+                                                    Button.primary("view_profile", "👤 View Profile"),
+                                                    Button.success("create_profile", "📝 Create Profile")
+                                            )
+                                            .addActionRow(
+                                                    Button.secondary("match_jobs", "🎯 Match Me"),
+                                                    Button.danger("delete_profile", "🗑️ Delete Profile"),
+                                                    Button.primary("feedback","⭐ Feedback")
+
+                                            )
+                                            .queue();
+                                });
+                                scheduler.shutdown(); // Cerramos el scheduler después de usarlo
+                            }, 1500, TimeUnit.MILLISECONDS);
 
-                List<String> selectedPositions = event.getValues();
-                String joined = String.join(", ", selectedPositions);
-
-                try {
-                    StudentDAO.upsertStudent(null, null, null, joined, userId); // Save positions
-
-                    event.getHook().sendMessage("✅ Positions saved: " + joined).queue(msg -> {
-
-                        // Crear un pequeño delay antes de abrir el DM
-                        ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor();
-                        scheduler.schedule(() -> {
-                            event.getUser().openPrivateChannel().queue(dm -> {
-                                dm.sendMessage("✅ Your profile has been saved! What would you like to do next?")
-                                        .addActionRow(
-                                                Button.primary("gpt_ask", "🤖 Ask GPT"),
-                                                Button.primary("view_profile", "👤 View Profile"),
-                                                Button.success("create_profile", "📝 Create Profile")
-                                        )
-                                        .addActionRow(
-                                                Button.secondary("match_jobs", "🎯 Match Me"),
-                                                Button.danger("delete_profile", "🗑️ Delete Profile"),
-                                                Button.primary("feedback","⭐ Feedback")
-
-                                        )
-                                        .queue();
-                            });
-                            scheduler.shutdown(); // Cerramos el scheduler después de usarlo
-                        }, 1500, TimeUnit.MILLISECONDS);
-
-                    });
+                        });
 
-                } catch (Exception e) {
-                    e.printStackTrace();
-                    event.getHook().sendMessage("❌ Error saving positions. Please try again.").queue();
-                }
+                    } catch (Exception e) {
+                        e.printStackTrace();
+                        event.getHook().sendMessage("❌ Error saving positions. Please try again.").queue();
+                    }
+                });
             }
 
 
@@ -0,0 +1,168 @@
+package bot;
+
+import bot.ai.CvAnalysisCache;
+import bot.api.OpportunityClient;
+import bot.api.OpportunityClient.Opportunity;
+import config.BotConfig;
+import storage.Cluster;
+import storage.MatchResultDAO;
+import storage.OpportunityDAO;
+import storage.StudentDAO;
+import util.TtlCache;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Runs "Match Me" searches so repeated clicks do not repeat the work.
+ * While a user's match is running, further clicks attach to it and receive the same result.
+ * Finished results are kept for MATCH_REUSE_SECONDS per profile version (skills + career interest),
+ * so clicking again shortly afterwards neither searches upstream nor writes to the database;
+ * editing the profile changes the version and the next click searches again.
+ * In cluster mode (CLUSTER_ENABLED) results are shared through the 'match_result_cache' table, so a click
+ * handled by another process finds the earlier result instead of searching again. No lock or database
+ * connection is held during the upstream search; when two processes search at the same time, the first
+ * one to store its result wins and both show that one.
+ */
+public class MatchCoordinator {
+
+    /**
+     * Outcome of a match.
+     *
+     * @param profileComplete false if the user has no skills or career interest yet
+     * @param results         the opportunities found, in display order
+     * @param reused          true if the result came from the reuse window instead of a new search
+     */
+    public record Result(boolean profileComplete, List<Opportunity> results, boolean reused) {
+    }
+
+    // 0 turns the reuse window off; clicks during a running match are still coalesced
+    private static final long REUSE_SECONDS = Math.max(0, BotConfig.getLong("MATCH_REUSE_SECONDS", 120));
+
+    private static final Map<String, CompletableFuture<Result>> inFlight = new ConcurrentHashMap<>();
+    private static final TtlCache<String, List<Opportunity>> recent = new TtlCache<>(
+            "match-results", 1000, 32L * 1024 * 1024, Duration.ofSeconds(Math.max(1, REUSE_SECONDS)),
+            list -> list.stream().mapToLong(Opportunity::estimatedBytes).sum());
+
+    private static final AtomicLong coalesced = new AtomicLong();
+    private static final AtomicLong lastPrune = new AtomicLong();
+
+    /**
+     * Starts a match for the user, or returns the one already running for them.
+     * The returned future completes exceptionally with a RejectedExecutionException if the
+     * handler executor is saturated.
+     *
+     * @param userId Discord ID of the user
+     * @return future completed with the match result
+     */
+    public static CompletableFuture<Result> match(String userId) {
+        CompletableFuture<Result> created = new CompletableFuture<>();
+        CompletableFuture<Result> running = inFlight.putIfAbsent(userId, created);
+        if (running != null) {
+            coalesced.incrementAndGet();
+            return running;
+        }
+
+        // Leave the in-flight slot before completing, so a click arriving afterwards starts fresh
+        boolean accepted = HandlerExecutor.submit("match_jobs", () -> {
+            try {
+                Result result = run(userId);
+                inFlight.remove(userId, created);
+                created.complete(result);
+            } catch (Throwable t) {
+                inFlight.remove(userId, created);
+                created.completeExceptionally(t);
+            }
+        });
+        if (!accepted) {
+            inFlight.remove(userId, created);
+            created.completeExceptionally(new RejectedExecutionException(HandlerExecutor.busyMessage()));
+        }
+        return created;
+    }
+
+    /**
+     * @return number of clicks that attached to a match already running
+     */
+    public static long getCoalescedCount() {
+        return coalesced.get();
+    }
+
+    public static TtlCache.Stats getStats() {
+        return recent.stats();
+    }
+
+    /**
+     * Stores a result for the other processes and now and then drops expired rows.
+     *
+     * @return the shared result, or null if this process's result was stored (or sharing failed)
+     */
+    private static List<Opportunity> shareResult(String versionHash, List<Opportunity> results) {
+        try {
+            List<Opportunity> stored = MatchResultDAO.saveIfAbsent(versionHash, results,
+                    Instant.now().minusSeconds(REUSE_SECONDS));
+            long now = System.currentTimeMillis();
+            long last = lastPrune.get();
+            if (now - last > REUSE_SECONDS * 1000 && lastPrune.compareAndSet(last, now)) {
+                MatchResultDAO.deleteOlderThan(Instant.now().minusSeconds(REUSE_SECONDS));
+            }
+            return stored == results ? null : stored;
+        } catch (Exception e) {
+            System.out.println("⚠️ Failed to share match result: " + e.getMessage());
+            return null;
+        }
+    }
+
+    private static Result run(String userId) throws Exception {
+        Map<String, String> profile = StudentDAO.getStudentProfile(userId);
+        if (profile == null || profile.get("Skills") == null || profile.get("Career Interest") == null) {
+            return new Result(false, List.of(), false);
+        }
+
+        String skills = profile.get("Skills");
+        String interest = profile.get("Career Interest");
+        String version = userId + "\n" + skills + "\n" + interest;
+
+        List<Opportunity> cached = REUSE_SECONDS == 0 ? null : recent.getIfPresent(version);
+        if (cached != null) {
+            return new Result(true, cached, true);
+        }
+        String versionHash = Cluster.isEnabled() && REUSE_SECONDS > 0 ? CvAnalysisCache.sha256(version) : null;
+        if (versionHash != null) {
+            cached = MatchResultDAO.find(versionHash, Instant.now().minusSeconds(REUSE_SECONDS));
+            if (cached != null) {
+                recent.put(version, List.copyOf(cached));
+                return new Result(true, List.copyOf(cached), true);
+            }
+        }
+
+        List<Opportunity> results = OpportunityClient.searchTopMatches(skills + ", " + interest);
+        List<Opportunity> snapshot = List.copyOf(results);
+        if (!results.isEmpty()) {
+            // Save all matches in one round trip (existing ones are skipped)
+            try {
+                OpportunityDAO.upsertAllForUser(results, userId);
+            } catch (Exception ex) {
+                // Shown once, but not reused: a reused result would skip saving the matches again
+                ex.printStackTrace();
+                return new Result(true, snapshot, false);
+            }
+        }
+        if (versionHash != null) {
+            // Another process finished the same search first; show and keep its result instead
+            List<Opportunity> shared = shareResult(versionHash, snapshot);
+            if (shared != null) {
+                recent.put(version, List.copyOf(shared));
+                return new Result(true, List.copyOf(shared), true);
+            }
+        }
+        if (REUSE_SECONDS > 0) recent.put(version, snapshot);
+        return new Result(true, snapshot, false);
+    }
+}
@@ -0,0 +1,180 @@
+package bot;
+
+import bot.api.CatalogSync;
+import bot.api.OpportunityClient.Opportunity;
+import config.BotConfig;
+import match.SkillTaxonomy;
+import match.StudentMaskTable;
+import net.dv8tion.jda.api.JDA;
+import net.dv8tion.jda.api.entities.User;
+import storage.OpportunityDAO;
+import storage.StudentDAO;
+
+import java.util.*;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Reverse matching: instead of a student searching for opportunities, each opportunity that the
+ * catalog sync finds new or changed is matched against all student profiles. Profiles and opportunities
+ * are encoded as {@link SkillTaxonomy} masks, so checking one opportunity against every student is a
+ * popcount scan over a {@link StudentMaskTable} instead of students × search terms × API pages.
+ * Matches are written to 'opportunities' in bulk, and only rows that did not exist yet are collected
+ * into a per-student digest, sent as one DM every PUSH_DIGEST_MINUTES.
+ * Requires CATALOG_SYNC_ENABLED; in cluster mode only the process running the sync sends digests.
+ */
+public class PushMatcher implements CatalogSync.Listener {
+
+    private static final boolean ENABLED = BotConfig.getBoolean("PUSH_MATCHING_ENABLED", false);
+    private static final int MIN_MATCHED_TERMS = Math.max(1, BotConfig.getInt("PUSH_MIN_MATCHED_TERMS", 2));
+    private static final long DIGEST_MINUTES = Math.max(1, BotConfig.getLong("PUSH_DIGEST_MINUTES", 60));
+    private static final int DIGEST_MAX_ITEMS = Math.max(1, BotConfig.getInt("PUSH_DIGEST_MAX_ITEMS", 20));
+    private static final int DM_PER_MINUTE = Math.max(1, BotConfig.getInt("PUSH_DM_PER_MINUTE", 30));
+    // Full reload of the student masks, as a safety net for profile edits made elsewhere
+    private static final long INDEX_REFRESH_MINUTES = Math.max(1, BotConfig.getLong("PUSH_INDEX_REFRESH_MINUTES", 30));
+
+    private static final StudentMaskTable students = new StudentMaskTable();
+
+    // New matches waiting for the next digest, per student, keyed by opportunity ID
+    private static final Map<String, Map<String, Opportunity>> pending = new HashMap<>();
+
+    private static ScheduledExecutorService scheduler;
+    private static volatile JDA jda;
+
+    /**
+     * Loads the student masks and starts listening to catalog changes, if push matching is enabled.
+     */
+    public static synchronized void start() {
+        if (!ENABLED || scheduler != null) return;
+        if (!CatalogSync.isEnabled()) {
+            System.out.println("⚠️ PUSH_MATCHING_ENABLED needs CATALOG_SYNC_ENABLED; push matching is off");
+            return;
+        }
+
+        scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "push-matcher");
+            t.setDaemon(true);
+            return t;
+        });
+        scheduler.scheduleWithFixedDelay(PushMatcher::reloadStudents, 0, INDEX_REFRESH_MINUTES, TimeUnit.MINUTES);
+        scheduler.scheduleWithFixedDelay(PushMatcher::sendDigests, DIGEST_MINUTES, DIGEST_MINUTES, TimeUnit.MINUTES);
+        CatalogSync.addListener(new PushMatcher());
+        System.out.println("📬 Push matching enabled, digests every " + DIGEST_MINUTES + " min");
+    }
+
+    /**
+     * Gives the matcher a session to send DMs through; the first ready session is kept.
+     */
+    public static void attach(JDA session) {
+        if (jda == null) jda = session;
+    }
+
+    /**
+     * Refreshes one student's mask after their skills or positions changed (or the profile was deleted).
+     */
+    public static void profileChanged(String discordId) {
+        ScheduledExecutorService executor = scheduler;
+        if (executor == null) return;
+        executor.execute(() -> {
+            try {
+                Long mask = StudentDAO.getSkillMask(discordId);
+                if (mask == null) {
+                    students.remove(discordId);
+                    synchronized (pending) {
+                        pending.remove(discordId); // Profile deleted: drop the digest waiting for them
+                    }
+                } else {
+                    students.put(discordId, mask);
+                }
+            } catch (Exception e) {
+                System.out.println("⚠️ Failed to refresh mask of student " + discordId + ": " + e.getMessage());
+            }
+        });
+    }
+
+    @Override
+    public void onCatalogChanged(List<Opportunity> changed, Set<String> removedIds) {
+        long started = System.currentTimeMillis();
+
+        // 1) Find the interested students of each opportunity by overlap of the taxonomy masks
+        Map<String, List<Opportunity>> matches = new HashMap<>();
+        for (Opportunity opp : changed) {
+            students.match(opp.skillMask(), MIN_MATCHED_TERMS).keySet()
+                    .forEach(student -> matches.computeIfAbsent(student, s -> new ArrayList<>()).add(opp));
+        }
+
+        // 2) Store the matches; only pairs that were not stored before count as news
+        Map<String, List<Opportunity>> inserted;
+        try {
+            inserted = matches.isEmpty() ? Map.of() : OpportunityDAO.upsertForUsers(matches);
+        } catch (Exception e) {
+            System.out.println("❌ Push matching failed to store matches: " + e.getMessage());
+            return;
+        }
+
+        int pairs = 0;
+        synchronized (pending) {
+            for (var entry : inserted.entrySet()) {
+                Map<String, Opportunity> digest = pending.computeIfAbsent(entry.getKey(), k -> new LinkedHashMap<>());
+                for (Opportunity opp : entry.getValue()) {
+                    digest.put(opp.id, opp);
+                    pairs++;
+                }
+            }
+            if (!removedIds.isEmpty()) {
+                pending.values().forEach(digest -> digest.keySet().removeAll(removedIds));
+                pending.values().removeIf(Map::isEmpty);
+            }
+        }
+
+        System.out.println("📬 Push matching: " + changed.size() + " opportunities → " + pairs + " new matches for "
+                + inserted.size() + " students in " + (System.currentTimeMillis() - started) + " ms");
+    }
+
+    private static void reloadStudents() {
+        try {
+            Map<String, Long> masks = StudentDAO.getSkillMasks();
+            students.replaceAll(masks);
+            System.out.println("📬 Push matching table: " + students.size() + " students");
+        } catch (Exception e) {
+            System.out.println("⚠️ Failed to load student profiles for push matching: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Sends the collected digests, spaced to PUSH_DM_PER_MINUTE.
+     */
+    private static void sendDigests() {
+        JDA session = jda;
+        if (session == null) return; // Not connected yet; keep collecting
+
+        Map<String, Map<String, Opportunity>> batch;
+        synchronized (pending) {
+            if (pending.isEmpty()) return;
+            batch = new LinkedHashMap<>(pending);
+            pending.clear();
+        }
+
+        long spacingMs = TimeUnit.MINUTES.toMillis(1) / DM_PER_MINUTE;
+        long delayMs = 0;
+        for (var entry : batch.entrySet()) {
+            List<Opportunity> items = new ArrayList<>(entry.getValue().values());
+            scheduler.schedule(() -> sendDigest(session, entry.getKey(), items), delayMs, TimeUnit.MILLISECONDS);
+            delayMs += spacingMs;
+        }
+        System.out.println("📬 Sending " + batch.size() + " opportunity digests");
+    }
+
+    private static void sendDigest(JDA session, String discordId, List<Opportunity> items) {
+        List<Opportunity> shown = items.size() > DIGEST_MAX_ITEMS ? items.subList(0, DIGEST_MAX_ITEMS) : items;
+        String header = "🆕 **" + items.size() + " new " + (items.size() == 1 ? "opportunity matches" : "opportunities match")
+                + " your profile!**" + (items.size() > shown.size() ? " Here are the first " + shown.size() + ":" : "");
+
+        session.retrieveUserById(discordId)
+                .flatMap(User::openPrivateChannel)
+                .queue(channel -> channel.sendMessage(header)
+                                .queue(msg -> ResultPager.send(channel, discordId, shown)),
+                        error -> System.out.println("⚠️ Could not send digest to " + discordId + ": " + error.getMessage()));
+    }
+}
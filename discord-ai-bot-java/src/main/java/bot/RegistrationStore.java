@@ -0,0 +1,222 @@
+package bot;
+
+import config.BotConfig;
+import storage.Cluster;
+import storage.RegistrationStateDAO;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Comparator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Tracks where each user is in the profile registration flow (email → name → skills → positions).
+ * State lives in a concurrent map; moving between steps is an atomic compare-and-set, so two
+ * messages handled at the same time cannot both complete the same step. Users who abandon the flow
+ * are evicted after a time-to-live, and the map is capped in size. With REGISTRATION_PERSIST set,
+ * every change is also written to the 'registration_state' table (in order, on a background thread)
+ * and recent states are reloaded on startup, so a restart does not lose anyone's progress.
+ * In cluster mode (CLUSTER_ENABLED) the table itself is the store: every read and step change goes
+ * to the database, so a user's messages and clicks may be handled by any bot process. Discord
+ * delivers every DM event (messages and component clicks) to shard 0, though, so registrations
+ * started in DMs are in practice all handled by the process that runs shard 0.
+ */
+public class RegistrationStore {
+
+    public enum Step { EMAIL, NAME, SKILLS, POSITIONS }
+
+    private record Entry(Step step, Instant updatedAt) {
+    }
+
+    private static final Duration TTL = Duration.ofMinutes(Math.max(1, BotConfig.getLong("REGISTRATION_TTL_MINUTES", 60)));
+    private static final int MAX_ENTRIES = Math.max(1, BotConfig.getInt("REGISTRATION_MAX_ENTRIES", 10000));
+    private static final boolean PERSIST = BotConfig.getBoolean("REGISTRATION_PERSIST", false);
+    private static final boolean SHARED = Cluster.isEnabled();
+
+    private static final Map<String, Entry> states = new ConcurrentHashMap<>();
+
+    // Single writer keeps database updates in the same order as the in-memory changes
+    private static final ExecutorService writer = PERSIST ? Executors.newSingleThreadExecutor(r -> {
+        Thread t = new Thread(r, "registration-writer");
+        t.setDaemon(true);
+        return t;
+    }) : null;
+
+    private static ScheduledExecutorService sweeper;
+
+    /**
+     * Reloads persisted states (if enabled) and schedules the periodic eviction of expired ones.
+     */
+    public static synchronized void start() {
+        if (sweeper != null) return;
+        if (PERSIST && !SHARED) {
+            try {
+                RegistrationStateDAO.loadSince(Instant.now().minus(TTL), MAX_ENTRIES).forEach((userId, state) -> {
+                    try {
+                        states.putIfAbsent(userId, new Entry(Step.valueOf(state.step()), state.updatedAt()));
+                    } catch (IllegalArgumentException e) {
+                        // Step no longer exists; the user simply starts over
+                    }
+                });
+                System.out.println("📝 Restored " + states.size() + " registrations in progress");
+            } catch (Exception e) {
+                System.out.println("⚠️ Failed to restore registration state: " + e.getMessage());
+            }
+        }
+
+        sweeper = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "registration-sweeper");
+            t.setDaemon(true);
+            return t;
+        });
+        long period = Math.max(1, TTL.toMinutes() / 4);
+        sweeper.scheduleWithFixedDelay(RegistrationStore::evictExpired, period, period, TimeUnit.MINUTES);
+    }
+
+    /**
+     * Puts the user at the first step of the flow, replacing any earlier progress.
+     */
+    public static void begin(String userId) {
+        if (SHARED) {
+            try {
+                RegistrationStateDAO.save(userId, Step.EMAIL.name(), Instant.now());
+            } catch (Exception e) {
+                System.out.println("⚠️ Failed to save registration state: " + e.getMessage());
+            }
+            return;
+        }
+        set(userId, Step.EMAIL);
+    }
+
+    /**
+     * @return the user's current step, or null if they are not registering (or their state expired)
+     */
+    public static Step get(String userId) {
+        if (SHARED) {
+            try {
+                RegistrationStateDAO.State state = RegistrationStateDAO.find(userId, Instant.now().minus(TTL));
+                return state == null ? null : Step.valueOf(state.step());
+            } catch (Exception e) {
+                System.out.println("⚠️ Failed to load registration state: " + e.getMessage());
+                return null;
+            }
+        }
+        Entry entry = states.get(userId);
+        if (entry == null) return null;
+        if (isExpired(entry, Instant.now())) {
+            if (states.remove(userId, entry)) persistDelete(userId);
+            return null;
+        }
+        return entry.step();
+    }
+
+    /**
+     * Moves the user from one step to the next, only if they are still at the expected step.
+     *
+     * @return true if this call made the move; false if the user was elsewhere (e.g. another message got there first)
+     */
+    public static boolean advance(String userId, Step expected, Step next) {
+        Instant now = Instant.now();
+        if (SHARED) {
+            try {
+                return RegistrationStateDAO.compareAndSet(userId, expected.name(), next.name(), now.minus(TTL), now);
+            } catch (Exception e) {
+                System.out.println("⚠️ Failed to save registration state: " + e.getMessage());
+                return false;
+            }
+        }
+        Entry[] replaced = new Entry[1];
+        states.computeIfPresent(userId, (id, entry) -> {
+            if (entry.step() != expected || isExpired(entry, now)) return entry;
+            replaced[0] = new Entry(next, now);
+            return replaced[0];
+        });
+        if (replaced[0] == null) return false;
+        persistSave(userId, replaced[0]);
+        return true;
+    }
+
+    /**
+     * Ends the flow for the user.
+     */
+    public static void clear(String userId) {
+        if (SHARED) {
+            try {
+                RegistrationStateDAO.delete(userId);
+            } catch (Exception e) {
+                System.out.println("⚠️ Failed to delete registration state: " + e.getMessage());
+            }
+            return;
+        }
+        if (states.remove(userId) != null) persistDelete(userId);
+    }
+
+    public static int size() {
+        return states.size();
+    }
+
+    private static void set(String userId, Step step) {
+        Entry entry = new Entry(step, Instant.now());
+        states.put(userId, entry);
+        persistSave(userId, entry);
+        if (states.size() > MAX_ENTRIES) evictOverflow();
+    }
+
+    private static boolean isExpired(Entry entry, Instant now) {
+        return entry.updatedAt().plus(TTL).isBefore(now);
+    }
+
+    private static void evictExpired() {
+        Instant now = Instant.now();
+        states.entrySet().removeIf(e -> isExpired(e.getValue(), now));
+        if (PERSIST || SHARED) {
+            try {
+                RegistrationStateDAO.deleteOlderThan(now.minus(TTL));
+            } catch (Exception e) {
+                System.out.println("⚠️ Failed to purge expired registration state: " + e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Drops expired entries and then the least recently updated ones until the cap is respected.
+     */
+    private static synchronized void evictOverflow() {
+        evictExpired();
+        int excess = states.size() - MAX_ENTRIES;
+        if (excess <= 0) return;
+        states.entrySet().stream()
+                .sorted(Comparator.comparing(e -> e.getValue().updatedAt()))
+                .limit(excess)
+                .map(Map.Entry::getKey)
+                .toList()
+                .forEach(RegistrationStore::clear);
+    }
+
+    private static void persistSave(String userId, Entry entry) {
+        if (!PERSIST) return;
+        writer.execute(() -> {
+            try {
+                RegistrationStateDAO.save(userId, entry.step().name(), entry.updatedAt());
+            } catch (Exception e) {
+                System.out.println("⚠️ Failed to persist registration state: " + e.getMessage());
+            }
+        });
+    }
+
+    private static void persistDelete(String userId) {
+        if (!PERSIST) return;
+        writer.execute(() -> {
+            try {
+                RegistrationStateDAO.delete(userId);
+            } catch (Exception e) {
+                System.out.println("⚠️ Failed to persist registration state: " + e.getMessage());
+            }
+        });
+    }
+}
@@ -0,0 +1,164 @@
+package bot;
+
+import bot.api.OpportunityClient.Opportunity;
+import net.dv8tion.jda.api.entities.MessageEmbed;
+import net.dv8tion.jda.api.entities.channel.middleman.MessageChannel;
+import net.dv8tion.jda.api.events.interaction.component.ButtonInteractionEvent;
+import net.dv8tion.jda.api.interactions.components.ActionRow;
+import net.dv8tion.jda.api.interactions.components.LayoutComponent;
+import net.dv8tion.jda.api.interactions.components.buttons.Button;
+import util.TtlCache;
+
+import java.net.URI;
+import java.net.URISyntaxException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Delivers opportunity results as pages of up to 10 embeds per message instead of one message each.
+ * A page also respects Discord's 6000-character limit for all embeds of a message. Each page carries
+ * the "Apply" link buttons of its opportunities and, when there is more than one page, previous/next
+ * buttons that edit the same message in place. Result sets are remembered for a limited time only;
+ * navigating an expired result set asks the user to search again.
+ */
+public class ResultPager {
+
+    public static final String BUTTON_PREFIX = "page:";
+
+    // Discord limits per message
+    private static final int MAX_EMBEDS_PER_MESSAGE = 10;
+    private static final int MAX_BUTTONS_PER_ROW = 5;
+    private static final int MAX_BUTTON_LABEL = 80;
+    private static final int MAX_BUTTON_URL = 512;
+
+    private record ResultSet(String ownerId, List<List<Opportunity>> pages) {
+    }
+
+    private static final AtomicLong nextId = new AtomicLong();
+    private static final TtlCache<String, ResultSet> sessions = new TtlCache<>(
+            "result-pages", 1000, 64L * 1024 * 1024, Duration.ofMinutes(30),
+            set -> set.pages().stream().flatMap(List::stream).mapToLong(Opportunity::estimatedBytes).sum());
+
+    /**
+     * Sends the first page of results to the channel.
+     *
+     * @param channel where the results are posted
+     * @param ownerId Discord ID of the user the results belong to; only they can turn the pages
+     * @param results the opportunities to show, in display order
+     */
+    public static void send(MessageChannel channel, String ownerId, List<Opportunity> results) {
+        List<List<MessageEmbed>> embedPages = new ArrayList<>();
+        List<List<Opportunity>> pages = paginate(results, embedPages);
+        if (pages.isEmpty()) return;
+
+        String sessionId = Long.toString(nextId.incrementAndGet(), 36);
+        if (pages.size() > 1) sessions.put(sessionId, new ResultSet(ownerId, pages));
+
+        channel.sendMessageEmbeds(embedPages.get(0))
+                .setComponents(components(sessionId, pages.get(0), 0, pages.size()))
+                .queue();
+    }
+
+    /**
+     * Handles a click on a previous/next button by editing the message to show the requested page.
+     */
+    public static void handleButton(ButtonInteractionEvent event) {
+        // Button ID format: page:<sessionId>:<pageIndex>
+        String[] parts = event.getComponentId().split(":");
+        ResultSet set = parts.length == 3 ? sessions.getIfPresent(parts[1]) : null;
+        if (set == null) {
+            event.reply("⌛ These results have expired. Click **🎯 Match Me** to search again.")
+                    .setEphemeral(true).queue();
+            return;
+        }
+        if (!set.ownerId().equals(event.getUser().getId())) {
+            event.reply("🔒 Only the person who searched can turn these pages.").setEphemeral(true).queue();
+            return;
+        }
+
+        int page = Math.max(0, Math.min(set.pages().size() - 1, Integer.parseInt(parts[2])));
+        List<Opportunity> opportunities = set.pages().get(page);
+        event.editMessageEmbeds(opportunities.stream().map(Opportunity::toEmbed).toList())
+                .setComponents(components(parts[1], opportunities, page, set.pages().size()))
+                .queue();
+    }
+
+    /**
+     * Splits results into pages of at most 10 embeds whose combined length stays within the message limit.
+     */
+    private static List<List<Opportunity>> paginate(List<Opportunity> results, List<List<MessageEmbed>> embedPages) {
+        List<List<Opportunity>> pages = new ArrayList<>();
+        List<Opportunity> page = new ArrayList<>();
+        List<MessageEmbed> embeds = new ArrayList<>();
+        int length = 0;
+
+        for (Opportunity opp : results) {
+            MessageEmbed embed = opp.toEmbed();
+            int embedLength = embed.getLength();
+            if (!page.isEmpty() && (page.size() == MAX_EMBEDS_PER_MESSAGE
+                    || length + embedLength > MessageEmbed.EMBED_MAX_LENGTH_BOT)) {
+                pages.add(page);
+                embedPages.add(embeds);
+                page = new ArrayList<>();
+                embeds = new ArrayList<>();
+                length = 0;
+            }
+            page.add(opp);
+            embeds.add(embed);
+            length += embedLength;
+        }
+        if (!page.isEmpty()) {
+            pages.add(page);
+            embedPages.add(embeds);
+        }
+        return pages;
+    }
+
+    /**
+     * Builds the Apply link rows for a page plus the navigation row when there are several pages.
+     */
+    private static List<LayoutComponent> components(String sessionId, List<Opportunity> page, int index, int pageCount) {
+        List<LayoutComponent> rows = new ArrayList<>();
+        List<Button> row = new ArrayList<>();
+        for (Opportunity opp : page) {
+            // One link Discord refuses would fail the whole message, so unusable URLs get no button
+            if (!isLinkable(opp.url)) continue;
+            row.add(Button.link(opp.url, label("📩 Apply: " + opp.title)));
+            if (row.size() == MAX_BUTTONS_PER_ROW) {
+                rows.add(ActionRow.of(row));
+                row = new ArrayList<>();
+            }
+        }
+        if (!row.isEmpty()) rows.add(ActionRow.of(row));
+
+        if (pageCount > 1) {
+            rows.add(ActionRow.of(
+                    Button.secondary(BUTTON_PREFIX + sessionId + ":" + (index - 1), "◀ Prev").withDisabled(index == 0),
+                    Button.secondary(BUTTON_PREFIX + sessionId + ":current", "Page " + (index + 1) + "/" + pageCount).asDisabled(),
+                    Button.secondary(BUTTON_PREFIX + sessionId + ":" + (index + 1), "Next ▶").withDisabled(index == pageCount - 1)
+            ));
+        }
+        return rows;
+    }
+
+    /**
+     * @return true if Discord accepts the URL for a link button: http(s) with a host, at most 512 chars
+     */
+    static boolean isLinkable(String url) {
+        if (url == null || url.isBlank() || url.length() > MAX_BUTTON_URL) return false;
+        try {
+            URI uri = new URI(url);
+            String scheme = uri.getScheme() == null ? "" : uri.getScheme().toLowerCase(Locale.ROOT);
+            return (scheme.equals("http") || scheme.equals("https")) && uri.getHost() != null;
+        } catch (URISyntaxException e) {
+            return false;
+        }
+    }
+
+    private static String label(String text) {
+        return text.length() <= MAX_BUTTON_LABEL ? text : text.substring(0, MAX_BUTTON_LABEL - 1) + "…";
+    }
+}
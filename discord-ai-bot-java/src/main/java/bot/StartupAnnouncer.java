@@ -0,0 +1,109 @@
+package bot;
+
+import config.BotConfig;
+import net.dv8tion.jda.api.JDA;
+import net.dv8tion.jda.api.entities.Guild;
+import net.dv8tion.jda.api.entities.channel.concrete.TextChannel;
+import net.dv8tion.jda.api.interactions.components.buttons.Button;
+import storage.GuildAnnouncementDAO;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Posts the "now online" message with the Get Started button to each guild's default channel,
+ * spread out over time instead of in one burst at login. Sends are spaced to ANNOUNCE_PER_MINUTE
+ * with up to ANNOUNCE_JITTER_MS of random extra delay, and run on a background thread so users are
+ * served right away. Each guild is announced once per ANNOUNCE_VERSION; the guilds already announced
+ * are kept in the 'guild_announcement' table, so a restart does not post again.
+ */
+public class StartupAnnouncer {
+
+    private static final boolean ENABLED = BotConfig.getBoolean("ANNOUNCE_ENABLED", true);
+    private static final String VERSION = BotConfig.getString("ANNOUNCE_VERSION", defaultVersion());
+    private static final int PER_MINUTE = Math.max(1, BotConfig.getInt("ANNOUNCE_PER_MINUTE", 20));
+    private static final long JITTER_MS = Math.max(0, BotConfig.getLong("ANNOUNCE_JITTER_MS", 2000));
+
+    // Next free send slot (epoch millis); shards that become ready later queue behind earlier ones.
+    // Only touched on the scheduler thread.
+    private static long nextSlotAt = 0;
+
+    private static final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread t = new Thread(r, "startup-announcer");
+        t.setDaemon(true);
+        return t;
+    });
+
+    /**
+     * Queues the announcement for every guild of the session that has not seen this version yet.
+     * Returns immediately; the database lookup and the sends happen in the background.
+     */
+    public static void announce(JDA jda) {
+        if (!ENABLED) return;
+        List<String> guildIds = new ArrayList<>();
+        for (Guild guild : jda.getGuilds()) {
+            guildIds.add(guild.getId());
+        }
+        scheduler.execute(() -> schedule(jda, guildIds));
+    }
+
+    private static void schedule(JDA jda, List<String> guildIds) {
+        Set<String> announced;
+        try {
+            announced = GuildAnnouncementDAO.getAnnouncedGuilds(VERSION);
+        } catch (Exception e) {
+            // Without the record we cannot tell who has seen it; staying quiet beats spamming on every restart
+            System.out.println("⚠️ Skipping startup announcements, state unavailable: " + e.getMessage());
+            return;
+        }
+
+        long spacingMs = TimeUnit.MINUTES.toMillis(1) / PER_MINUTE;
+        long now = System.currentTimeMillis();
+        long slot = Math.max(now, nextSlotAt);
+        int queued = 0;
+        for (String guildId : guildIds) {
+            if (announced.contains(guildId)) continue;
+            long jitter = JITTER_MS > 0 ? ThreadLocalRandom.current().nextLong(JITTER_MS + 1) : 0;
+            scheduler.schedule(() -> send(jda, guildId), slot - now + jitter, TimeUnit.MILLISECONDS);
+            slot += spacingMs;
+            queued++;
+        }
+        nextSlotAt = slot;
+        if (queued > 0) {
+            System.out.println("📣 Announcing version " + VERSION + " to " + queued + " guilds over ~"
+                    + TimeUnit.MILLISECONDS.toSeconds(slot - now) + " s");
+        }
+    }
+
+    private static void send(JDA jda, String guildId) {
+        Guild guild = jda.getGuildById(guildId);
+        if (guild == null) return; // Left the guild in the meantime
+        if (guild.getDefaultChannel() instanceof TextChannel channel && channel.canTalk()) {
+            channel.sendMessage("👋 **JOBIFY CVUT Bot is now online and ready to help!**")
+                    .setActionRow(Button.primary("start", "🚀 Get Started"))
+                    .queue(msg -> scheduler.execute(() -> markAnnounced(guildId)),
+                            error -> System.out.println("⚠️ Announcement to guild " + guildId + " failed: " + error.getMessage()));
+        } else {
+            // Nowhere to post; do not retry on every restart
+            markAnnounced(guildId);
+        }
+    }
+
+    private static void markAnnounced(String guildId) {
+        try {
+            GuildAnnouncementDAO.markAnnounced(guildId, VERSION);
+        } catch (Exception e) {
+            System.out.println("⚠️ Failed to record announcement for guild " + guildId + ": " + e.getMessage());
+        }
+    }
+
+    private static String defaultVersion() {
+        String version = StartupAnnouncer.class.getPackage().getImplementationVersion();
+        return version != null ? version : "1.0";
+    }
+}
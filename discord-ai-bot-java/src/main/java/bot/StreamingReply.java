@@ -0,0 +1,142 @@
+package bot;
+
+import net.dv8tion.jda.api.entities.Message;
+import net.dv8tion.jda.api.entities.channel.middleman.MessageChannel;
+
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Shows a reply that is still being generated by progressively editing a Discord message.
+ * A placeholder is posted right away, then the message is edited with the text received so far
+ * at most once per edit interval. When the text outgrows Discord's 2000-character limit, the
+ * current message is finalised and the rest continues in a new message.
+ * All Discord calls are chained, so they reach Discord in order without blocking the caller.
+ */
+public class StreamingReply {
+
+    private static final int MAX_MESSAGE_LENGTH = 2000;
+    private static final String PLACEHOLDER = "💭 Thinking...";
+
+    private final MessageChannel channel;
+    private final long editIntervalMillis;
+
+    // Text of the message currently being written (earlier messages are final)
+    private final StringBuilder current = new StringBuilder();
+    private String lastQueuedContent = PLACEHOLDER;
+    private boolean needsNewMessage = false;
+    private long lastEditAt = 0;
+
+    // Chain of pending Discord calls and the ID of the message being edited (set inside the chain)
+    private CompletableFuture<Void> tail = CompletableFuture.completedFuture(null);
+    private volatile String messageId;
+
+    /**
+     * @param channel            where the reply is posted
+     * @param editIntervalMillis minimum time between two edits of the same message
+     */
+    public StreamingReply(MessageChannel channel, long editIntervalMillis) {
+        this.channel = channel;
+        this.editIntervalMillis = editIntervalMillis;
+    }
+
+    /**
+     * Posts the placeholder message so the user sees a response immediately.
+     */
+    public synchronized StreamingReply start() {
+        enqueueSend(PLACEHOLDER);
+        lastEditAt = System.currentTimeMillis();
+        return this;
+    }
+
+    /**
+     * Appends newly generated text and refreshes the message if the edit interval has passed.
+     */
+    public synchronized void append(String delta) {
+        current.append(delta);
+
+        // Roll over full messages, preferring to cut at a line break or space
+        while (current.length() > MAX_MESSAGE_LENGTH) {
+            int cut = splitPoint(current);
+            enqueueWrite(current.substring(0, cut));
+            current.delete(0, cut);
+            needsNewMessage = true;
+        }
+
+        long now = System.currentTimeMillis();
+        if (now - lastEditAt >= editIntervalMillis && current.length() > 0) {
+            enqueueWrite(current.toString());
+            lastEditAt = now;
+        }
+    }
+
+    /**
+     * Writes the final text. The returned future completes once every queued Discord call finished.
+     */
+    public synchronized CompletableFuture<Void> finish() {
+        if (current.length() > 0) {
+            enqueueWrite(current.toString());
+        } else if (!needsNewMessage && PLACEHOLDER.equals(lastQueuedContent)) {
+            enqueueWrite("🤷 No answer was generated.");
+        }
+        return tail;
+    }
+
+    /**
+     * Replaces whatever is being shown in the current message with an error text.
+     */
+    public synchronized CompletableFuture<Void> fail(String errorMessage) {
+        current.setLength(0);
+        enqueueWrite(errorMessage);
+        return tail;
+    }
+
+    private void enqueueWrite(String content) {
+        if (needsNewMessage) {
+            needsNewMessage = false;
+            enqueueSend(content);
+            return;
+        }
+        if (content.equals(lastQueuedContent)) return;
+        lastQueuedContent = content;
+
+        // Without a message (its send failed), retry sending instead of editing
+        tail = tail.thenCompose(v -> messageId == null
+                        ? send(content)
+                        : channel.editMessageById(messageId, content).submit().thenApply(m -> (Void) null))
+                .exceptionally(StreamingReply::logFailure);
+    }
+
+    private void enqueueSend(String content) {
+        lastQueuedContent = content;
+        tail = tail.thenCompose(v -> send(content))
+                .exceptionally(t -> {
+                    // Never keep editing the previous, already finished message
+                    messageId = null;
+                    return logFailure(t);
+                });
+    }
+
+    private CompletableFuture<Void> send(String content) {
+        return channel.sendMessage(content).submit().thenAccept((Message m) -> messageId = m.getId());
+    }
+
+    private static Void logFailure(Throwable t) {
+        System.out.println("⚠️ Failed to update streaming reply: " + t.getMessage());
+        return null;
+    }
+
+    /**
+     * Finds where to cut a message that is too long: the last line break or space before the limit.
+     */
+    private static int splitPoint(CharSequence text) {
+        int min = MAX_MESSAGE_LENGTH / 2;
+        for (int i = MAX_MESSAGE_LENGTH; i > min; i--) {
+            if (text.charAt(i - 1) == '\n') return i;
+        }
+        for (int i = MAX_MESSAGE_LENGTH; i > min; i--) {
+            if (text.charAt(i - 1) == ' ') return i;
+        }
+        // No good break: cut at the limit, but never between the two halves of a surrogate pair
+        return Character.isHighSurrogate(text.charAt(MAX_MESSAGE_LENGTH - 1)) ? MAX_MESSAGE_LENGTH - 1 : MAX_MESSAGE_LENGTH;
+    }
+}
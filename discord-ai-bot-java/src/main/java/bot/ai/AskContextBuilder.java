@@ -0,0 +1,165 @@
+package bot.ai;
+
+import bot.api.OpportunityClient.Opportunity;
+import config.BotConfig;
+import match.OpportunityIndex;
+import match.TopK;
+import util.TokenEstimator;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Builds the user prompt for !ask within a token budget.
+ * The student's saved opportunities are ranked by relevance to the question (and, with a lower
+ * weight, to the student's profile) using the same BM25 scoring as catalog matching. They are
+ * then added best first, with descriptions shortened, until the budget is used up. Opportunities
+ * that no longer fit in full are listed by title only, and the rest are counted in a closing note.
+ */
+public class AskContextBuilder {
+
+    // Question terms count more than profile terms when ranking
+    private static final double QUESTION_WEIGHT = 2.0;
+    private static final double PROFILE_WEIGHT = 1.0;
+
+    private final int tokenBudget;
+    private final int maxDescriptionTokens;
+
+    public AskContextBuilder() {
+        this(Math.max(200, BotConfig.getInt("ASK_CONTEXT_TOKEN_BUDGET", 3000)),
+                Math.max(0, BotConfig.getInt("ASK_DESCRIPTION_MAX_TOKENS", 150)));
+    }
+
+    /**
+     * @param tokenBudget          estimated tokens the whole prompt may use
+     * @param maxDescriptionTokens estimated tokens kept from each opportunity description
+     */
+    public AskContextBuilder(int tokenBudget, int maxDescriptionTokens) {
+        this.tokenBudget = tokenBudget;
+        this.maxDescriptionTokens = maxDescriptionTokens;
+    }
+
+    /**
+     * @param profile       the student's profile fields, may be null
+     * @param opportunities the student's saved opportunities, may be null
+     * @param question      the question asked
+     * @return the prompt text; the question itself is always included
+     */
+    public String build(Map<String, String> profile, List<Opportunity> opportunities, String question) {
+        StringBuilder profileInfo = new StringBuilder();
+        if (profile != null) {
+            profile.forEach((key, value) -> {
+                if (value != null && !value.isBlank()) {
+                    profileInfo.append("- ").append(key).append(": ").append(value).append("\n");
+                }
+            });
+        }
+
+        String questionPart = "💬 My question is: " + question;
+        StringBuilder prompt = new StringBuilder();
+        if (!profileInfo.isEmpty()) {
+            prompt.append("📄 Here is my student profile:\n").append(profileInfo).append("\n");
+        }
+        int remaining = tokenBudget - TokenEstimator.estimate(prompt.toString()) - TokenEstimator.estimate(questionPart);
+
+        if (opportunities != null && !opportunities.isEmpty()) {
+            String header = "📌 These are the job opportunities assigned to me (most relevant first):\n";
+            remaining -= TokenEstimator.estimate(header);
+
+            StringBuilder listed = new StringBuilder();
+            int omitted = 0;
+            for (Opportunity opp : rank(opportunities, question, profileInfo.toString())) {
+                String full = formatOpportunity(opp);
+                int cost = TokenEstimator.estimate(full);
+                if (cost <= remaining) {
+                    listed.append(full);
+                    remaining -= cost;
+                    continue;
+                }
+                String brief = formatBrief(opp);
+                cost = TokenEstimator.estimate(brief);
+                if (cost <= remaining) {
+                    listed.append(brief);
+                    remaining -= cost;
+                } else {
+                    omitted++;
+                }
+            }
+            if (omitted > 0) {
+                listed.append("(").append(omitted).append(" less relevant saved opportunities omitted)\n");
+            }
+            if (!listed.isEmpty()) {
+                prompt.append(header).append(listed).append("\n");
+            }
+        }
+
+        prompt.append(questionPart);
+        return prompt.toString();
+    }
+
+    /**
+     * Orders opportunities by weighted BM25 relevance; ones that match nothing keep their original order at the end.
+     */
+    private static List<Opportunity> rank(List<Opportunity> opportunities, String question, String profileText) {
+        OpportunityIndex index = new OpportunityIndex();
+        index.addAll(opportunities);
+
+        Map<Opportunity, Double> scores = new IdentityHashMap<>();
+        for (TopK.Scored<Opportunity> hit : index.search(question, opportunities.size())) {
+            scores.merge(hit.item(), QUESTION_WEIGHT * hit.score(), Double::sum);
+        }
+        for (TopK.Scored<Opportunity> hit : index.search(profileText, opportunities.size())) {
+            scores.merge(hit.item(), PROFILE_WEIGHT * hit.score(), Double::sum);
+        }
+
+        List<Opportunity> ranked = new ArrayList<>(opportunities);
+        ranked.sort(Comparator.comparingDouble((Opportunity opp) -> scores.getOrDefault(opp, 0.0)).reversed());
+        return ranked;
+    }
+
+    private String formatOpportunity(Opportunity opp) {
+        return String.format("""
+        🔹 **Title**: %s
+        🏢 **Company**: %s
+        💼 **Type**: %s
+        📅 **Deadline**: %s
+        🏠 **Home Office**: %s
+        💰 **Salary**: %s
+        🛠 **Tech Req**: %s
+        📚 **Formal Req**: %s
+        📄 **Description**: %s
+        📞 **Contact**: %s
+
+        """,
+                opp.title, opp.company, opp.type, opp.deadline,
+                opp.homeOffice, opp.wage, opp.techReq, opp.formReq,
+                shorten(opp.description, maxDescriptionTokens), opp.contactPerson
+        );
+    }
+
+    private static String formatBrief(Opportunity opp) {
+        return "🔹 " + opp.title + " (" + opp.company + ", deadline " + opp.deadline + ")\n";
+    }
+
+    /**
+     * Cuts text to about the given number of tokens, preferring the end of a sentence, then of a word.
+     */
+    static String shorten(String text, int maxTokens) {
+        if (text == null || TokenEstimator.estimate(text) <= maxTokens) return text;
+
+        int maxChars = maxTokens * 4;
+        String cut = text.substring(0, Math.min(text.length(), maxChars));
+        while (cut.length() > 0 && TokenEstimator.estimate(cut) > maxTokens) {
+            cut = cut.substring(0, cut.length() * 9 / 10);
+        }
+
+        int sentenceEnd = Math.max(cut.lastIndexOf(". "), cut.lastIndexOf(".\n"));
+        if (sentenceEnd > cut.length() / 2) return cut.substring(0, sentenceEnd + 1) + " …";
+        int space = cut.lastIndexOf(' ');
+        if (space > cut.length() / 2) return cut.substring(0, space) + " …";
+        return cut + "…";
+    }
+}
@@ -0,0 +1,162 @@
+package bot.ai;
+
+import config.BotConfig;
+import storage.CvAnalysisDAO;
+import util.TtlCache;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.HexFormat;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Remembers the GPT analysis of uploaded CVs by content, so uploading the same resume again
+ * costs no OpenAI calls. Lookups go to an in-memory LRU first and then to the
+ * 'cv_analysis_cache' table; a PDF is found either by the hash of its bytes or, after text
+ * extraction, by the hash of its text. Database problems only disable the persistent layer.
+ * The CV text itself is never cached; stored rows expire after {@code CV_CACHE_DB_TTL_DAYS}
+ * and are dropped when the last profile using the PDF is deleted.
+ */
+public class CvAnalysisCache {
+
+    /**
+     * Raw GPT answers for one CV, keyed by the hashes of the file and of its text.
+     *
+     * @param pdfHash     SHA-256 hex of the PDF bytes
+     * @param textHash    SHA-256 hex of the extracted text
+     * @param profileJson GPT answer with name, email, skills and positions
+     * @param ratingJson  GPT answer with rating and feedback
+     */
+    public record CvAnalysis(String pdfHash, String textHash, String profileJson, String ratingJson) {
+
+        long estimatedBytes() {
+            return 64L + 2L * (pdfHash.length() + textHash.length()
+                    + profileJson.length() + ratingJson.length());
+        }
+    }
+
+    private static final boolean ENABLED = BotConfig.getBoolean("CV_CACHE_ENABLED", true);
+    private static final Duration DB_TTL = Duration.ofDays(Math.max(1, BotConfig.getLong("CV_CACHE_DB_TTL_DAYS", 30)));
+    // Expired rows are swept by store(), at most once per interval
+    private static final long PRUNE_INTERVAL_MS = Duration.ofHours(1).toMillis();
+    private static final AtomicLong lastPrune = new AtomicLong();
+
+    // Keys are "pdf:<hash>" and "text:<hash>", both pointing to the same analysis
+    private static final TtlCache<String, CvAnalysis> memory = new TtlCache<>(
+            "cv-analysis",
+            Math.max(1, BotConfig.getInt("CV_CACHE_MAX_ENTRIES", 500)),
+            Math.max(1, BotConfig.getLong("CV_CACHE_MAX_BYTES", 16L * 1024 * 1024)),
+            Duration.ofHours(Math.max(1, BotConfig.getLong("CV_CACHE_TTL_HOURS", 24))),
+            CvAnalysis::estimatedBytes);
+
+    /**
+     * Looks up the analysis of a PDF by the hash of its bytes.
+     *
+     * @return the cached analysis, or null on a miss
+     */
+    public static CvAnalysis findByPdfHash(String pdfHash) {
+        if (!ENABLED) return null;
+        CvAnalysis cached = memory.getIfPresent("pdf:" + pdfHash);
+        if (cached != null) return cached;
+
+        try {
+            cached = CvAnalysisDAO.findByPdfHash(pdfHash, oldestValid());
+        } catch (Exception e) {
+            System.out.println("⚠️ CV cache lookup failed: " + e.getMessage());
+            return null;
+        }
+        if (cached != null) remember(cached);
+        return cached;
+    }
+
+    /**
+     * Looks up the analysis of a PDF by the hash of its extracted text.
+     * The returned analysis is re-keyed to the given PDF hash, so the next upload of this file hits directly.
+     *
+     * @return the cached analysis, or null on a miss
+     */
+    public static CvAnalysis findByTextHash(String pdfHash, String textHash) {
+        if (!ENABLED) return null;
+        CvAnalysis cached = memory.getIfPresent("text:" + textHash);
+        if (cached == null) {
+            try {
+                cached = CvAnalysisDAO.findByTextHash(textHash, oldestValid());
+            } catch (Exception e) {
+                System.out.println("⚠️ CV cache lookup failed: " + e.getMessage());
+                return null;
+            }
+            if (cached == null) return null;
+        }
+
+        if (!cached.pdfHash().equals(pdfHash)) {
+            cached = new CvAnalysis(pdfHash, textHash, cached.profileJson(), cached.ratingJson());
+            store(cached);
+        } else {
+            remember(cached);
+        }
+        return cached;
+    }
+
+    /**
+     * Saves a fresh analysis in memory and in the database, and now and then drops expired rows.
+     */
+    public static void store(CvAnalysis analysis) {
+        if (!ENABLED) return;
+        remember(analysis);
+        try {
+            CvAnalysisDAO.save(analysis);
+            long now = System.currentTimeMillis();
+            long last = lastPrune.get();
+            if (now - last > PRUNE_INTERVAL_MS && lastPrune.compareAndSet(last, now)) {
+                int removed = CvAnalysisDAO.deleteOlderThan(oldestValid());
+                if (removed > 0) System.out.println("🧹 Removed " + removed + " expired CV analyses");
+            }
+        } catch (Exception e) {
+            System.out.println("⚠️ Failed to persist CV analysis: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Drops the analysis of a PDF once no student profile references the file any more.
+     * Called when a profile is deleted; failures are only logged.
+     *
+     * @param pdfHash SHA-256 hex of the PDF bytes
+     */
+    public static void forget(String pdfHash) {
+        memory.invalidate("pdf:" + pdfHash);
+        try {
+            String textHash = CvAnalysisDAO.deleteIfUnreferenced(pdfHash);
+            if (textHash != null) memory.invalidate("text:" + textHash);
+        } catch (Exception e) {
+            System.out.println("⚠️ Failed to drop CV analysis " + pdfHash + ": " + e.getMessage());
+        }
+    }
+
+    public static TtlCache.Stats getStats() {
+        return memory.stats();
+    }
+
+    public static String sha256(byte[] data) {
+        try {
+            return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(data));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    public static String sha256(String text) {
+        return sha256(text.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static Instant oldestValid() {
+        return Instant.now().minus(DB_TTL);
+    }
+
+    private static void remember(CvAnalysis analysis) {
+        memory.put("pdf:" + analysis.pdfHash(), analysis);
+        memory.put("text:" + analysis.textHash(), analysis);
+    }
+}
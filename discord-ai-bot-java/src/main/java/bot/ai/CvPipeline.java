@@ -0,0 +1,134 @@
+package bot.ai;
+
+import com.google.gson.JsonObject;
+import config.BotConfig;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Runs the GPT analysis of an uploaded CV: extracting the profile (name, email, skills, positions)
+ * and rating the CV with suggestions. Two modes are available:
+ * <ul>
+ *   <li>COMBINED (default) sends the CV once and asks for profile and rating in a single JSON object,
+ *       so the CV text is paid for only once.</li>
+ *   <li>CONCURRENT sends the two original prompts at the same time and joins the answers.</li>
+ * </ul>
+ * Either way the answers are parsed leniently and returned as normalised JSON strings.
+ */
+public class CvPipeline {
+
+    public enum Mode { CONCURRENT, COMBINED }
+
+    /**
+     * Normalised analysis answers.
+     *
+     * @param profileJson object with name, email, skills and positions
+     * @param ratingJson  object with rating and feedback
+     */
+    public record Result(String profileJson, String ratingJson) {
+    }
+
+    private static final String MODEL = "gpt-3.5-turbo";
+
+    private static final String PROFILE_PROMPT = """
+            Analyze the following CV and return a JSON object with the following keys:
+            - name (full name)
+            - email (valid email address)
+            - skills (array of skills, that are used in the projects or jobs, for example: JAVA, C)
+            - positions (array of desired job roles like backend, frontend, devops, etc.)
+
+            CV:
+            --------------------
+            """;
+
+    private static final String RATING_PROMPT = """
+            You are a career advisor. Read the following CV and evaluate its overall quality.
+            Return a JSON object with two fields:
+            - rating: a number between 1 and 10 (10 = excellent)
+            - feedback: a list of 2–5 suggestions to improve the CV.
+
+            CV:
+            --------------------
+            """;
+
+    private static final String COMBINED_PROMPT = """
+            You are a career advisor. Analyze the following CV and return only a JSON object with these keys:
+            - name (full name)
+            - email (valid email address)
+            - skills (array of skills, that are used in the projects or jobs, for example: JAVA, C)
+            - positions (array of desired job roles like backend, frontend, devops, etc.)
+            - rating (a number between 1 and 10, 10 = excellent, for the overall quality of the CV)
+            - feedback (a list of 2–5 suggestions to improve the CV)
+
+            CV:
+            --------------------
+            """;
+
+    private final GPTClient gpt;
+    private final Mode mode;
+
+    public CvPipeline(GPTClient gpt) {
+        this(gpt, configuredMode());
+    }
+
+    public CvPipeline(GPTClient gpt, Mode mode) {
+        this.gpt = gpt;
+        this.mode = mode;
+    }
+
+    /**
+     * Analyzes a CV on the GPT scheduler.
+     *
+     * @param userKey whose GPT quota the requests use
+     * @param cvText  text extracted from the CV
+     * @return a future with the parsed answers; it fails if an answer contains no usable JSON
+     */
+    public CompletableFuture<Result> analyze(String userKey, String cvText) {
+        if (mode == Mode.COMBINED) {
+            return gpt.askAsync(userKey, userMessage(COMBINED_PROMPT + cvText), MODEL)
+                    .thenApply(CvPipeline::splitCombined);
+        }
+
+        CompletableFuture<String> profile = gpt.askAsync(userKey, userMessage(PROFILE_PROMPT + cvText), MODEL);
+        CompletableFuture<String> rating = gpt.askAsync(userKey, userMessage(RATING_PROMPT + cvText), MODEL);
+        return profile.thenCombine(rating, (p, r) -> new Result(
+                LenientJson.parseObject(p).toString(),
+                LenientJson.parseObject(r).toString()));
+    }
+
+    public Mode getMode() {
+        return mode;
+    }
+
+    private static Mode configuredMode() {
+        String value = BotConfig.getString("CV_PIPELINE_MODE", "COMBINED").trim().toUpperCase();
+        try {
+            return Mode.valueOf(value);
+        } catch (IllegalArgumentException e) {
+            System.out.println("⚠️ Unknown CV_PIPELINE_MODE '" + value + "', using COMBINED");
+            return Mode.COMBINED;
+        }
+    }
+
+    /**
+     * Splits the single combined answer into the same two objects the separate prompts produce.
+     */
+    private static Result splitCombined(String answer) {
+        JsonObject all = LenientJson.parseObject(answer);
+        JsonObject profile = new JsonObject();
+        JsonObject rating = new JsonObject();
+        for (String key : List.of("name", "email", "skills", "positions")) {
+            if (all.has(key)) profile.add(key, all.get(key));
+        }
+        for (String key : List.of("rating", "feedback")) {
+            if (all.has(key)) rating.add(key, all.get(key));
+        }
+        return new Result(profile.toString(), rating.toString());
+    }
+
+    private static List<Map<String, String>> userMessage(String content) {
+        return List.of(Map.of("role", "user", "content", content));
+    }
+}
@@ -0,0 +1,134 @@
+package bot.ai;
+
+import java.util.ArrayDeque;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Runs jobs on a fixed number of worker threads, taking them from per-user queues in round-robin order.
+ * The worker count caps how many jobs run at once; round-robin means a user with many queued
+ * jobs gets one turn per cycle, like everybody else, instead of monopolising the workers.
+ * Each user may only have a limited number of jobs waiting; extra submissions are rejected.
+ */
+public class FairScheduler {
+
+    private record Job<T>(Callable<T> task, CompletableFuture<T> result) {
+        void run() {
+            if (result.isDone()) return; // Cancelled while waiting
+            try {
+                result.complete(task.call());
+            } catch (Throwable t) {
+                result.completeExceptionally(t);
+            }
+        }
+    }
+
+    private final String name;
+    private final int maxQueuedPerUser;
+
+    // Guarded by "this": one queue per user plus the round-robin order of users with pending jobs
+    private final Map<String, ArrayDeque<Job<?>>> queues = new HashMap<>();
+    private final ArrayDeque<String> turnOrder = new ArrayDeque<>();
+    private int queued;
+
+    private final AtomicInteger running = new AtomicInteger();
+
+    /**
+     * @param name             prefix of the worker thread names
+     * @param workers          maximum number of jobs running at the same time
+     * @param maxQueuedPerUser maximum number of waiting jobs per user
+     */
+    public FairScheduler(String name, int workers, int maxQueuedPerUser) {
+        this.name = name;
+        this.maxQueuedPerUser = maxQueuedPerUser;
+        for (int i = 1; i <= workers; i++) {
+            Thread worker = new Thread(this::workLoop, name + "-" + i);
+            worker.setDaemon(true);
+            worker.start();
+        }
+    }
+
+    /**
+     * Queues a job for the given user.
+     *
+     * @param userKey identifies whose turn the job uses (e.g. the Discord user ID)
+     * @param task    the work to run
+     * @return a future completed with the task's result or failure; it fails with
+     *         RejectedExecutionException if the user already has too many jobs waiting
+     */
+    public <T> CompletableFuture<T> submit(String userKey, Callable<T> task) {
+        CompletableFuture<T> result = new CompletableFuture<>();
+        synchronized (this) {
+            ArrayDeque<Job<?>> queue = queues.computeIfAbsent(userKey, k -> new ArrayDeque<>());
+            if (queue.size() >= maxQueuedPerUser) {
+                result.completeExceptionally(new RejectedExecutionException(
+                        "Too many pending requests, please wait for the previous ones to finish."));
+                return result;
+            }
+            if (queue.isEmpty()) turnOrder.addLast(userKey);
+            queue.addLast(new Job<>(task, result));
+            queued++;
+            notify();
+        }
+        return result;
+    }
+
+    /**
+     * @return number of jobs waiting for a worker
+     */
+    public synchronized int queuedCount() {
+        return queued;
+    }
+
+    /**
+     * @return number of jobs currently running
+     */
+    public int runningCount() {
+        return running.get();
+    }
+
+    @Override
+    public String toString() {
+        return name + ": running=" + runningCount() + " queued=" + queuedCount();
+    }
+
+    private void workLoop() {
+        while (true) {
+            Job<?> job;
+            try {
+                job = takeNext();
+            } catch (InterruptedException e) {
+                return;
+            }
+            running.incrementAndGet();
+            try {
+                job.run();
+            } finally {
+                running.decrementAndGet();
+            }
+        }
+    }
+
+    /**
+     * Takes the next job of the user whose turn it is, moving that user to the back of the line.
+     */
+    private synchronized Job<?> takeNext() throws InterruptedException {
+        while (turnOrder.isEmpty()) {
+            wait();
+        }
+        String userKey = turnOrder.pollFirst();
+        ArrayDeque<Job<?>> queue = queues.get(userKey);
+        Job<?> job = queue.pollFirst();
+        if (queue.isEmpty()) {
+            queues.remove(userKey);
+        } else {
+            turnOrder.addLast(userKey);
+        }
+        queued--;
+        return job;
+    }
+}
@@ -0,0 +1,118 @@
+package bot.ai;
+
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParseException;
+import com.google.gson.JsonParser;
+import com.google.gson.stream.JsonReader;
+
+import java.io.StringReader;
+import java.util.ArrayDeque;
+import java.util.Deque;
+
+/**
+ * Parses the JSON object contained in a model answer, even when the answer is not clean JSON.
+ * Handles Markdown code fences, text before or after the object, and output that was cut off
+ * mid-way (an unterminated string, a dangling key or missing closing brackets): the object is
+ * closed after the last complete value so whatever was generated before the cut can still be used.
+ */
+public class LenientJson {
+
+    /**
+     * Extracts and parses the first JSON object in the text.
+     *
+     * @param text raw model output
+     * @return the parsed object
+     * @throws JsonParseException if no usable object is found
+     */
+    public static JsonObject parseObject(String text) {
+        if (text == null) throw new JsonParseException("Empty model answer");
+        String body = stripFences(text);
+
+        int start = body.indexOf('{');
+        if (start < 0) throw new JsonParseException("No JSON object in model answer");
+
+        Deque<Character> open = new ArrayDeque<>();
+        boolean inString = false, escaped = false;
+
+        // Last place where the object can be cut and closed: right before a top-level separator
+        int safeEnd = -1;
+        String safeClosers = null;
+
+        for (int i = start; i < body.length(); i++) {
+            char c = body.charAt(i);
+            if (inString) {
+                if (escaped) {
+                    escaped = false;
+                } else if (c == '\\') {
+                    escaped = true;
+                } else if (c == '"') {
+                    inString = false;
+                }
+                continue;
+            }
+            switch (c) {
+                case '"' -> inString = true;
+                case '{' -> open.push('}');
+                case '[' -> open.push(']');
+                case '}', ']' -> {
+                    open.pop();
+                    if (open.isEmpty()) return parse(body.substring(start, i + 1));
+                }
+                case ',' -> {
+                    safeEnd = i;
+                    safeClosers = closers(open);
+                }
+                default -> {
+                }
+            }
+        }
+
+        // The answer was truncated: first try closing it where it stopped
+        StringBuilder repaired = new StringBuilder(body.substring(start).stripTrailing());
+        if (inString) {
+            if (escaped) repaired.setLength(repaired.length() - 1);
+            repaired.append('"');
+        }
+        char last = repaired.charAt(repaired.length() - 1);
+        if (last == ',') repaired.setLength(repaired.length() - 1);
+        if (last == ':') repaired.append("null");
+        repaired.append(closers(open));
+        try {
+            return parse(repaired.toString());
+        } catch (JsonParseException e) {
+            if (safeEnd < 0) throw e;
+        }
+
+        // Otherwise drop the incomplete trailing member and keep everything before it
+        return parse(body.substring(start, safeEnd) + safeClosers);
+    }
+
+    /**
+     * Returns the content of the first Markdown code block, or the text itself if it has none.
+     */
+    private static String stripFences(String text) {
+        int fence = text.indexOf("```");
+        if (fence < 0) return text;
+        int contentStart = text.indexOf('\n', fence);
+        if (contentStart < 0) return text.substring(fence + 3);
+        int end = text.indexOf("```", contentStart);
+        return end < 0 ? text.substring(contentStart + 1) : text.substring(contentStart + 1, end);
+    }
+
+    private static String closers(Deque<Character> open) {
+        StringBuilder sb = new StringBuilder();
+        for (char c : open) sb.append(c); // Iterates from the innermost bracket outwards
+        return sb.toString();
+    }
+
+    private static JsonObject parse(String json) {
+        try {
+            JsonElement element = JsonParser.parseReader(new JsonReader(new StringReader(json)));
+            if (!element.isJsonObject()) throw new JsonParseException("Model answer is not a JSON object");
+            return element.getAsJsonObject();
+        } catch (IllegalStateException e) {
+            throw new JsonParseException(e.getMessage(), e);
+        }
+    }
+}
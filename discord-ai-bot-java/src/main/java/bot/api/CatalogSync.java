@@ -0,0 +1,283 @@
+package bot.api;
+
+import bot.api.OpportunityClient.Opportunity;
+import config.BotConfig;
+import match.OpportunityIndex;
+import match.TopK;
+import storage.CatalogDAO;
+import storage.Cluster;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Periodically pages through the whole EXPERTS.AI catalog and mirrors it into the
+ * 'opportunity_catalog' table and an in-memory BM25 index, so matching can run against
+ * the local store instead of calling the API on every click.
+ * Changes are detected with a content hash per opportunity: unchanged opportunities cause no writes,
+ * and opportunities that disappear from the API are marked inactive after a complete pass.
+ * In cluster mode (CLUSTER_ENABLED) one process at a time syncs, under an advisory lock, and announces
+ * the finished pass; the other processes skip their own pass for that interval and refresh their
+ * index from the table instead. Listeners only fire in the process that ran the sync.
+ */
+public class CatalogSync {
+
+    /**
+     * Receives the delta of every sync run. The very first import into an empty catalog is not
+     * reported, since everything in it would look new.
+     */
+    public interface Listener {
+        /**
+         * @param changed    opportunities that are new or whose content changed
+         * @param removedIds IDs of opportunities no longer listed by the API
+         */
+        void onCatalogChanged(List<Opportunity> changed, Set<String> removedIds);
+    }
+
+    private static final boolean ENABLED = BotConfig.getBoolean("CATALOG_SYNC_ENABLED", false);
+    private static final long INTERVAL_MINUTES = Math.max(1, BotConfig.getLong("CATALOG_SYNC_INTERVAL_MINUTES", 30));
+    private static final int PAGE_SIZE = Math.max(1, BotConfig.getInt("CATALOG_PAGE_SIZE", 50));
+    private static final int MAX_PAGES = Math.max(1, BotConfig.getInt("CATALOG_MAX_PAGES", 200));
+    // Largest share of active rows one pass may deactivate; a bigger drop is more likely an API fault
+    private static final int MAX_REMOVE_PERCENT = Math.max(0, BotConfig.getInt("CATALOG_MAX_REMOVE_PERCENT", 20));
+
+    // Content hash of every active catalog row, as last written to the database
+    private static final Map<String, String> knownHashes = new ConcurrentHashMap<>();
+    private static final List<Listener> listeners = new CopyOnWriteArrayList<>();
+
+    // Full-text index over the active catalog, kept in step with the table
+    private static final OpportunityIndex index = new OpportunityIndex();
+
+    private static ScheduledExecutorService scheduler;
+    private static volatile boolean hashesLoaded = false;
+    private static volatile boolean ready = false;
+
+    // When another cluster process last finished a sync pass (epoch millis)
+    private static volatile long lastRemoteSync = 0;
+
+    /**
+     * @return true if CATALOG_SYNC_ENABLED is set
+     */
+    public static boolean isEnabled() {
+        return ENABLED;
+    }
+
+    /**
+     * @return true once the local catalog holds data that matching can use
+     */
+    public static boolean isReady() {
+        return ready;
+    }
+
+    /**
+     * Ranks the local catalog against a profile query.
+     *
+     * @param query skills, positions or any free text
+     * @param limit maximum number of results
+     * @return matches, most relevant first
+     */
+    public static List<TopK.Scored<Opportunity>> search(String query, int limit) {
+        return index.search(query, limit);
+    }
+
+    public static void addListener(Listener listener) {
+        listeners.add(listener);
+    }
+
+    /**
+     * Starts the periodic sync if it is enabled. The first run starts immediately in the background.
+     */
+    public static synchronized void start() {
+        if (!ENABLED || scheduler != null) return;
+
+        scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "catalog-sync");
+            thread.setDaemon(true);
+            return thread;
+        });
+        Cluster.subscribe("catalog", payload -> scheduler.execute(CatalogSync::refreshFromDatabase));
+        scheduler.scheduleWithFixedDelay(CatalogSync::runSafely, 0, INTERVAL_MINUTES, TimeUnit.MINUTES);
+        System.out.println("🔄 Catalog sync scheduled every " + INTERVAL_MINUTES + " min");
+    }
+
+    public static synchronized void stop() {
+        if (scheduler != null) {
+            scheduler.shutdownNow();
+            scheduler = null;
+        }
+    }
+
+    private static void runSafely() {
+        try {
+            if (System.currentTimeMillis() - lastRemoteSync < TimeUnit.MINUTES.toMillis(INTERVAL_MINUTES) / 2) {
+                return; // Another process synced recently
+            }
+            loadSnapshot();
+            boolean ran = Cluster.runIfFree("catalog-sync", () -> {
+                syncOnce();
+                return null;
+            });
+            if (!ran) System.out.println("🔄 Catalog sync skipped, another instance is running it");
+        } catch (Exception e) {
+            // Never let an exception cancel the schedule
+            System.out.println("❌ Catalog sync failed: " + e.getMessage());
+            e.printStackTrace();
+        }
+    }
+
+    /**
+     * Runs one full pass over the API catalog and writes the delta to the database.
+     *
+     * @throws Exception if the database cannot be reached
+     */
+    public static synchronized void syncOnce() throws Exception {
+        long started = System.currentTimeMillis();
+        loadSnapshot();
+        boolean initialImport = knownHashes.isEmpty();
+
+        // 1) Page through the whole catalog
+        Map<String, Opportunity> fetched = new LinkedHashMap<>();
+        boolean complete = false;
+        boolean pageFailed = false;
+        for (int page = 1; page <= MAX_PAGES; page++) {
+            OpportunityJsonReader.Page batch;
+            try {
+                batch = OpportunityClient.fetchCatalogPage(page, PAGE_SIZE);
+            } catch (Exception e) {
+                System.out.println("❌ Catalog page " + page + " failed: " + e.getMessage());
+                pageFailed = true;
+                break;
+            }
+            for (Opportunity opp : batch.opportunities()) {
+                fetched.put(opp.id, opp);
+            }
+            // Judge the end of the catalog by what the API listed, not by what was usable
+            if (batch.entries() < PAGE_SIZE) {
+                complete = true;
+                break;
+            }
+        }
+        if (!complete && !pageFailed) {
+            // Every page was full: the catalog is larger than the cap, so removals can never be detected
+            System.out.println("⚠️ Catalog has more than CATALOG_MAX_PAGES=" + MAX_PAGES + " pages of " + PAGE_SIZE
+                    + "; removed opportunities will not be deactivated until CATALOG_MAX_PAGES is raised");
+        }
+
+        // 2) Keep only new or changed opportunities
+        List<Opportunity> changed = new ArrayList<>();
+        Map<String, String> newHashes = new HashMap<>();
+        for (Opportunity opp : fetched.values()) {
+            String hash = opp.contentHash();
+            if (!hash.equals(knownHashes.get(opp.id))) {
+                changed.add(opp);
+                newHashes.put(opp.id, hash);
+            }
+        }
+        if (!changed.isEmpty()) {
+            CatalogDAO.upsertAll(changed);
+            knownHashes.putAll(newHashes);
+            index.addAll(changed);
+        }
+
+        // 3) Deactivate what disappeared, but only after a complete pass (a failed page is not a deletion)
+        Set<String> removed = Set.of();
+        if (complete && safeToDeactivate(fetched.keySet())) {
+            removed = CatalogDAO.deactivateMissing(fetched.keySet());
+            knownHashes.keySet().removeAll(removed);
+            index.removeAll(removed);
+        }
+
+        if (complete || index.size() > 0) ready = true;
+
+        System.out.println("🔄 Catalog sync: " + fetched.size() + " fetched, " + changed.size() + " new/changed, "
+                + removed.size() + " removed" + (complete ? "" : pageFailed ? " (incomplete pass, a page failed)" : " (incomplete pass, page cap reached)")
+                + " in " + (System.currentTimeMillis() - started) + " ms");
+
+        if (complete) {
+            Cluster.publish("catalog", changed.size() + "," + removed.size());
+        }
+
+        if (!initialImport && (!changed.isEmpty() || !removed.isEmpty())) {
+            for (Listener listener : listeners) {
+                try {
+                    listener.onCatalogChanged(changed, removed);
+                } catch (Exception e) {
+                    e.printStackTrace();
+                }
+            }
+        }
+    }
+
+    /**
+     * Loads the stored catalog once, so the previous snapshot is served while the first pass runs.
+     */
+    private static synchronized void loadSnapshot() throws Exception {
+        if (hashesLoaded) return;
+        knownHashes.putAll(CatalogDAO.loadActiveHashes());
+        index.addAll(CatalogDAO.getAllActive());
+        hashesLoaded = true;
+        if (index.size() > 0) ready = true;
+    }
+
+    /**
+     * Guards against wiping the catalog because of a broken API answer: nothing is deactivated when
+     * the pass fetched nothing, or when more than CATALOG_MAX_REMOVE_PERCENT of the active rows would go.
+     */
+    private static boolean safeToDeactivate(Set<String> fetchedIds) {
+        long missing = knownHashes.keySet().stream().filter(id -> !fetchedIds.contains(id)).count();
+        if (missing == 0) return true;
+        if (fetchedIds.isEmpty()) {
+            System.out.println("⚠️ Catalog sync fetched no opportunities; keeping all " + knownHashes.size() + " active rows");
+            return false;
+        }
+        if (missing * 100 > (long) MAX_REMOVE_PERCENT * knownHashes.size()) {
+            System.out.println("⚠️ Catalog sync would deactivate " + missing + " of " + knownHashes.size()
+                    + " opportunities, more than CATALOG_MAX_REMOVE_PERCENT=" + MAX_REMOVE_PERCENT + "%; skipping removals");
+            return false;
+        }
+        return true;
+    }
+
+    /**
+     * Applies a sync pass made by another cluster process: re-reads the table and updates the
+     * index with what changed since this process last looked.
+     */
+    private static synchronized void refreshFromDatabase() {
+        lastRemoteSync = System.currentTimeMillis();
+        try {
+            if (!hashesLoaded) {
+                loadSnapshot();
+                return;
+            }
+            Map<String, String> hashes = CatalogDAO.loadActiveHashes();
+            Set<String> removed = new HashSet<>(knownHashes.keySet());
+            removed.removeAll(hashes.keySet());
+
+            boolean anyChanged = hashes.entrySet().stream()
+                    .anyMatch(e -> !e.getValue().equals(knownHashes.get(e.getKey())));
+            int changedCount = 0;
+            if (anyChanged) {
+                List<Opportunity> changed = new ArrayList<>();
+                for (Opportunity opp : CatalogDAO.getAllActive()) {
+                    String hash = hashes.get(opp.id);
+                    if (hash != null && !hash.equals(knownHashes.get(opp.id))) changed.add(opp);
+                }
+                index.addAll(changed);
+                changedCount = changed.size();
+            }
+            index.removeAll(removed);
+            knownHashes.keySet().removeAll(removed);
+            knownHashes.putAll(hashes);
+            if (index.size() > 0) ready = true;
+
+            System.out.println("🔄 Catalog refreshed from another instance: " + changedCount
+                    + " new/changed, " + removed.size() + " removed");
+        } catch (Exception e) {
+            System.out.println("❌ Catalog refresh failed: " + e.getMessage());
+        }
+    }
+}
@@ -1,58 +1,207 @@
 package bot.api;
 
-import com.google.gson.*;
 import net.dv8tion.jda.api.EmbedBuilder;
 import net.dv8tion.jda.api.entities.MessageEmbed;
 import okhttp3.*;
 
+import config.BotConfig;
+import match.RelevanceScorer;
+import match.SkillTaxonomy;
+import match.TopK;
+import util.TtlCache;
+
 import java.io.IOException;
-import java.text.SimpleDateFormat;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
 import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
 
 /**
  * This class handles communication with the EXPERTS.AI opportunity API.
- * It fetches opportunities based on keywords and parses them into structured data.
+ * It fetches opportunities based on keywords and parses them into structured data
+ * (see OpportunityJsonReader).
  */
 public class OpportunityClient {
 
     // API endpoint for fetching opportunities
     private static final String API_URL = "https://experts.ai/ai.unico.platform.rest/api/common/edumatch/318923/opportunity";
     private static final OkHttpClient client = new OkHttpClient();
-    private static final Gson gson = new GsonBuilder().setPrettyPrinting().create();
-    private static final SimpleDateFormat dateFormat = new SimpleDateFormat("yyyy-MM-dd");
+
+    // Results per page requested from the API and the number of pages fetched per keyword
+    private static final int PAGE_SIZE = 5;
+    private static final int MAX_PAGES_PER_TERM = 3;
+
+    // Maximum number of concurrent API calls across all searches (1 = sequential search)
+    private static final int SEARCH_PARALLELISM = Math.max(1, BotConfig.getInt("SEARCH_PARALLELISM", 8));
+    // Pages of a keyword requested ahead of knowing whether the previous page was full
+    private static final int SEARCH_PREFETCH_PAGES =
+            Math.min(MAX_PAGES_PER_TERM, Math.max(1, BotConfig.getInt("SEARCH_PREFETCH_PAGES", MAX_PAGES_PER_TERM)));
+
+    // Maximum number of results returned when matching against the local catalog
+    private static final int CATALOG_MATCH_LIMIT = Math.max(1, BotConfig.getInt("CATALOG_MATCH_LIMIT", 50));
+
+    // Matches shown to (and stored for) a user per search, after relevance scoring
+    private static final int MATCH_TOP_K = Math.max(1, BotConfig.getInt("MATCH_TOP_K", 15));
+
+    // Shared worker pool that caps the number of in-flight API calls
+    private static final AtomicInteger searchThreadCount = new AtomicInteger();
+    private static final ExecutorService searchPool = Executors.newFixedThreadPool(SEARCH_PARALLELISM, runnable -> {
+        Thread thread = new Thread(runnable, "opportunity-search-" + searchThreadCount.incrementAndGet());
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    // Cache of API pages keyed by (keyword, page); SEARCH_CACHE_TTL_SECONDS=0 disables it
+    private record SearchKey(String term, int page) {
+    }
+
+    private static final TtlCache<SearchKey, List<Opportunity>> searchCache = createSearchCache();
+
+    private static TtlCache<SearchKey, List<Opportunity>> createSearchCache() {
+        long ttlSeconds = BotConfig.getLong("SEARCH_CACHE_TTL_SECONDS", 900);
+        if (ttlSeconds <= 0) return null;
+        return new TtlCache<>("search-cache",
+                BotConfig.getInt("SEARCH_CACHE_MAX_ENTRIES", 2_000),
+                BotConfig.getLong("SEARCH_CACHE_MAX_BYTES", 32L * 1024 * 1024),
+                Duration.ofSeconds(ttlSeconds),
+                page -> page.stream().mapToLong(Opportunity::estimatedBytes).sum() + 64);
+    }
 
     /**
      * Searches for opportunities based on multiple keywords.
-     * Each keyword is sent to the API individually (up to 3 pages per keyword).
+     * When the background catalog sync has data, the search runs against the local BM25 index
+     * and the returned set is ordered by relevance.
+     * Otherwise each keyword is sent to the API individually (up to 3 pages per keyword),
+     * concurrently on a bounded pool unless SEARCH_PARALLELISM is 1.
      *
      * @param keywords A space- or comma-separated string of keywords.
      * @return A set of opportunities collected from all keyword searches.
      */
     public static Set<Opportunity> searchMultipleKeywords(String keywords) {
-        Set<Opportunity> allResults = new HashSet<>();
-        String[] terms = keywords.toLowerCase().replace(",", " ").split("\\s+");
+        Set<String> terms = splitTerms(keywords);
 
+        // Prefer the locally synced catalog (ranked by relevance); use the live API until it is ready
+        if (CatalogSync.isReady()) {
+            Set<Opportunity> local = new LinkedHashSet<>();
+            for (TopK.Scored<Opportunity> hit : CatalogSync.search(String.join(" ", terms), CATALOG_MATCH_LIMIT)) {
+                local.add(hit.item());
+            }
+            System.out.println("✅ Total opportunities found in local catalog: " + local.size());
+            return local;
+        }
+
+        Set<Opportunity> allResults = SEARCH_PARALLELISM > 1
+                ? searchConcurrently(terms)
+                : searchSequentially(terms);
+        System.out.println("✅ Total opportunities found: " + allResults.size());
+        return allResults;
+    }
+
+    /**
+     * Searches like {@link #searchMultipleKeywords} and keeps only the MATCH_TOP_K results most relevant
+     * to the profile (see {@link RelevanceScorer}), so users get fewer, better matches.
+     *
+     * @param profileText the student's skills and positions
+     * @return the best matches, most relevant first
+     */
+    public static List<Opportunity> searchTopMatches(String profileText) {
+        Set<Opportunity> candidates = searchMultipleKeywords(profileText);
+        List<Opportunity> top = RelevanceScorer.topK(candidates, profileText, MATCH_TOP_K);
+        System.out.println("🏅 Selected top " + top.size() + " of " + candidates.size() + " opportunities");
+        return top;
+    }
+
+    /**
+     * Splits a keyword string into distinct lower-case terms, keeping their order.
+     */
+    private static Set<String> splitTerms(String keywords) {
+        Set<String> terms = new LinkedHashSet<>();
+        for (String term : keywords.toLowerCase().replace(",", " ").split("\\s+")) {
+            if (!term.isBlank()) terms.add(term);
+        }
+        return terms;
+    }
+
+    /**
+     * Original one-call-at-a-time search, used when parallelism is disabled.
+     */
+    private static Set<Opportunity> searchSequentially(Set<String> terms) {
+        Set<Opportunity> allResults = new HashSet<>();
         for (String term : terms) {
-            if (term.isBlank()) continue;
-            for (int page = 1; page <= 3; page++) {
+            for (int page = 1; page <= MAX_PAGES_PER_TERM; page++) {
                 System.out.println("🔎 Searching '" + term + "' page " + page);
 
                 try {
                     List<Opportunity> partial = search(term, page);
                     allResults.addAll(partial);
-                    if (partial.size() < 5) break; // Stop if less than 5 results
-                } catch (IOException e) {
+                    if (partial.size() < PAGE_SIZE) break; // Stop if the page was not full
+                } catch (Exception e) {
+                    // Keep the other keywords' results; later pages of this one are not worth trying
                     System.out.println("❌ Error searching for keyword '" + term + "' on page " + page + ": " + e.getMessage());
+                    break;
                 }
             }
         }
-        System.out.println("✅ Total opportunities found: " + allResults.size());
         return allResults;
     }
 
     /**
-     * Performs a search query to the opportunity API for a specific keyword and page.
-     * Parses the result JSON into a list of Opportunity objects.
+     * Runs all keyword searches on the shared pool and merges pages into the result set as they arrive.
+     * The first SEARCH_PREFETCH_PAGES pages of every keyword are requested immediately; each full page
+     * then triggers the page SEARCH_PREFETCH_PAGES further on, so a keyword with few results stops early.
+     */
+    private static Set<Opportunity> searchConcurrently(Set<String> terms) {
+        Set<Opportunity> allResults = ConcurrentHashMap.newKeySet();
+        if (terms.isEmpty()) return allResults;
+
+        AtomicInteger pending = new AtomicInteger();
+        CompletableFuture<Void> done = new CompletableFuture<>();
+
+        for (String term : terms) {
+            for (int page = 1; page <= SEARCH_PREFETCH_PAGES; page++) {
+                submitPage(term, page, allResults, pending, done);
+            }
+        }
+
+        done.join();
+        return allResults;
+    }
+
+    /**
+     * Schedules a single page request; completes {@code done} when the last outstanding page finishes.
+     */
+    private static void submitPage(String term, int page, Set<Opportunity> allResults,
+                                   AtomicInteger pending, CompletableFuture<Void> done) {
+        pending.incrementAndGet();
+        try {
+            searchPool.execute(() -> {
+                try {
+                    System.out.println("🔎 Searching '" + term + "' page " + page);
+                    List<Opportunity> partial = search(term, page);
+                    allResults.addAll(partial);
+
+                    int nextPage = page + SEARCH_PREFETCH_PAGES;
+                    if (partial.size() >= PAGE_SIZE && nextPage <= MAX_PAGES_PER_TERM) {
+                        submitPage(term, nextPage, allResults, pending, done);
+                    }
+                } catch (Exception e) {
+                    System.out.println("❌ Error searching for keyword '" + term + "' on page " + page + ": " + e.getMessage());
+                } finally {
+                    if (pending.decrementAndGet() == 0) done.complete(null);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            System.out.println("❌ Search pool rejected keyword '" + term + "' page " + page);
+            if (pending.decrementAndGet() == 0) done.complete(null);
+        }
+    }
+
+    /**
+     * Returns the opportunities for a keyword and page, served from the shared search cache when possible.
+     * Concurrent requests for the same keyword and page share a single API call.
      *
      * @param query The keyword to search for.
      * @param page  The page number (pagination).
@@ -60,10 +209,66 @@ public class OpportunityClient {
      * @throws IOException if the API call fails.
      */
     private static List<Opportunity> search(String query, int page) throws IOException {
+        if (searchCache == null) return fetchPage(query, page, PAGE_SIZE);
+        try {
+            return searchCache.get(new SearchKey(query, page), () -> List.copyOf(fetchPage(query, page, PAGE_SIZE)));
+        } catch (IOException | RuntimeException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new IOException(e);
+        }
+    }
+
+    /**
+     * Returns hit/miss/eviction counters of the search cache, or null when caching is disabled.
+     */
+    public static TtlCache.Stats getSearchCacheStats() {
+        return searchCache == null ? null : searchCache.stats();
+    }
+
+    /**
+     * Fetches one page of the full opportunity catalog (no keyword filter), bypassing the search cache.
+     * Used by the background catalog sync.
+     *
+     * @param page  The page number (pagination, starting at 1).
+     * @param limit The number of opportunities per page.
+     * @return The decoded page, with the number of entries the API listed.
+     * @throws IOException if the API call fails or the response has no opportunity list.
+     */
+    public static OpportunityJsonReader.Page fetchCatalogPage(int page, int limit) throws IOException {
+        OpportunityJsonReader.Page result = request(null, page, limit);
+        // A missing body or list is an API problem, not an empty catalog
+        if (result == null) throw new IOException("API returned an empty body");
+        if (!result.hasList()) throw new IOException("API response has no opportunityPreviewDtos");
+        return result;
+    }
+
+    /**
+     * Performs a search query to the opportunity API for a specific keyword and page.
+     * Parses the result JSON into a list of Opportunity objects.
+     *
+     * @param query The keyword to search for, or null to list all opportunities.
+     * @param page  The page number (pagination).
+     * @param limit The number of opportunities per page.
+     * @return A list of parsed Opportunity objects.
+     * @throws IOException if the API call fails.
+     */
+    private static List<Opportunity> fetchPage(String query, int page, int limit) throws IOException {
+        OpportunityJsonReader.Page result = request(query, page, limit);
+        return result == null ? List.of() : result.opportunities();
+    }
+
+    /**
+     * Requests one page and decodes it.
+     *
+     * @return the decoded page, or null if the response had no body
+     * @throws IOException if the API call fails or the body is not valid JSON
+     */
+    private static OpportunityJsonReader.Page request(String query, int page, int limit) throws IOException {
         HttpUrl.Builder urlBuilder = HttpUrl.parse(API_URL).newBuilder();
-        urlBuilder.addQueryParameter("query", query);
+        if (query != null) urlBuilder.addQueryParameter("query", query);
         urlBuilder.addQueryParameter("page", String.valueOf(page));
-        urlBuilder.addQueryParameter("limit", "5");
+        urlBuilder.addQueryParameter("limit", String.valueOf(limit));
         urlBuilder.addQueryParameter("includeApplications", "false");
 
         Request request = new Request.Builder()
@@ -75,80 +280,10 @@ public class OpportunityClient {
         try (Response response = client.newCall(request).execute()) {
             if (!response.isSuccessful()) throw new IOException("API error: " + response.code());
 
-            JsonObject root = JsonParser.parseString(response.body().string()).getAsJsonObject();
-            if (!root.has("opportunityPreviewDtos") || root.get("opportunityPreviewDtos").isJsonNull()) return List.of();
-
-            JsonArray items = root.getAsJsonArray("opportunityPreviewDtos");
-            List<Opportunity> results = new ArrayList<>();
-
-            for (JsonElement el : items) {
-                JsonObject obj = el.getAsJsonObject();
-
-                String id = obj.get("opportunityId").getAsString();
-                String name = obj.get("opportunityName").getAsString();
-                String description = obj.get("opportunityDescription").getAsString();
-
-                String company = "Unknown";
-                if (obj.has("organizationBaseDtos")) {
-                    JsonArray orgs = obj.getAsJsonArray("organizationBaseDtos");
-                    if (orgs.size() > 0) {
-                        JsonObject org = orgs.get(0).getAsJsonObject();
-                        company = org.get("organizationName").getAsString();
-                    }
-                }
-
-                String jobType = "N/A";
-                if (obj.has("jobTypes") && obj.get("jobTypes").isJsonArray()) {
-                    JsonArray jobArray = obj.getAsJsonArray("jobTypes");
-                    if (jobArray.size() > 0) jobType = "Type " + jobArray.get(0).getAsInt();
-                }
-
-                String deadline = "N/A";
-                if (obj.has("opportunitySignupDate") && !obj.get("opportunitySignupDate").isJsonNull()) {
-                    long ts = obj.get("opportunitySignupDate").getAsLong();
-                    deadline = dateFormat.format(new Date(ts));
-                }
-
-                String extLink = obj.has("opportunityExtLink") && !obj.get("opportunityExtLink").isJsonNull()
-                        ? obj.get("opportunityExtLink").getAsString()
-                        : "";
-
-                String wage = obj.has("opportunityWage") && !obj.get("opportunityWage").isJsonNull()
-                        ? obj.get("opportunityWage").getAsString()
-                        : "";
-
-                String homeOffice = obj.has("opportunityHomeOffice") && !obj.get("opportunityHomeOffice").isJsonNull()
-                        ? obj.get("opportunityHomeOffice").getAsString()
-                        : "";
-
-                String benefits = obj.has("opportunityBenefit") && !obj.get("opportunityBenefit").isJsonNull()
-                        ? obj.get("opportunityBenefit").getAsString()
-                        : "";
-
-                String formReq = obj.has("opportunityFormReq") && !obj.get("opportunityFormReq").isJsonNull()
-                        ? obj.get("opportunityFormReq").getAsString()
-                        : "";
-
-                String techReq = obj.has("opportunityTechReq") && !obj.get("opportunityTechReq").isJsonNull()
-                        ? obj.get("opportunityTechReq").getAsString()
-                        : "";
-
-                String contact = "";
-                if (obj.has("expertPreviews")) {
-                    JsonArray contacts = obj.getAsJsonArray("expertPreviews");
-                    if (contacts.size() > 0) {
-                        JsonObject c = contacts.get(0).getAsJsonObject();
-                        if (c.has("name") && !c.get("name").isJsonNull()) {
-                            contact = c.get("name").getAsString();
-                        }
-                    }
-                }
-
-                results.add(new Opportunity(id, name, company, jobType, deadline, description, extLink,
-                        wage, homeOffice, benefits, formReq, techReq, contact));
-            }
-
-            return results;
+            // Decode the body as it streams in, without materialising the whole JSON tree
+            ResponseBody body = response.body();
+            if (body == null) return null;
+            return OpportunityJsonReader.read(body.charStream());
         }
     }
 
@@ -159,6 +294,9 @@ public class OpportunityClient {
         public String id, title, company, type, deadline, description, url;
         public String wage, homeOffice, benefits, formReq, techReq, contactPerson;
 
+        // Cached SkillTaxonomy mask; transient so it is not part of the stored JSON
+        private transient Long skillMask;
+
         /**
          * Empty constructor (used when populating manually from database).
          */
@@ -213,6 +351,63 @@ public class OpportunityClient {
             return embed.build();
         }
 
+        /**
+         * SHA-256 of all displayed fields, used to detect changed opportunities during catalog sync.
+         *
+         * @return lower-case hex digest
+         */
+        public String contentHash() {
+            try {
+                MessageDigest digest = MessageDigest.getInstance("SHA-256");
+                for (String field : new String[]{id, title, company, type, deadline, description, url,
+                        wage, homeOffice, benefits, formReq, techReq, contactPerson}) {
+                    digest.update(String.valueOf(field).getBytes(StandardCharsets.UTF_8));
+                    digest.update((byte) 0); // Field separator so "ab"+"c" differs from "a"+"bc"
+                }
+                return HexFormat.of().formatHex(digest.digest());
+            } catch (NoSuchAlgorithmException e) {
+                throw new IllegalStateException("SHA-256 not available", e);
+            }
+        }
+
+        /**
+         * Canonical skills and positions this opportunity mentions in its title, type, technical
+         * requirements or description. Encoded on the first call (or loaded with a catalog row) and
+         * cached, so the text fields should be filled in before this is called.
+         *
+         * @return {@link SkillTaxonomy} mask
+         */
+        public long skillMask() {
+            Long mask = skillMask;
+            if (mask == null) {
+                mask = SkillTaxonomy.encode(String.join(", ", Objects.toString(title, ""), Objects.toString(type, ""),
+                        Objects.toString(techReq, ""), Objects.toString(description, "")));
+                skillMask = mask;
+            }
+            return mask;
+        }
+
+        /**
+         * Sets the mask stored with a catalog row, so it does not have to be encoded again.
+         */
+        public void setSkillMask(long mask) {
+            this.skillMask = mask;
+        }
+
+        /**
+         * Rough heap footprint of this opportunity, used to bound caches by size.
+         *
+         * @return estimated size in bytes
+         */
+        public long estimatedBytes() {
+            long bytes = 64;
+            for (String field : new String[]{id, title, company, type, deadline, description, url,
+                    wage, homeOffice, benefits, formReq, techReq, contactPerson}) {
+                if (field != null) bytes += 40 + 2L * field.length();
+            }
+            return bytes;
+        }
+
         @Override
         public boolean equals(Object o) {
             if (this == o) return true;
@@ -0,0 +1,201 @@
+package bot.api;
+
+import bot.api.OpportunityClient.Opportunity;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Streaming decoder for EXPERTS.AI opportunity pages.
+ * Reads the response token by token with Gson's JsonReader and maps each entry of
+ * "opportunityPreviewDtos" straight into an Opportunity, without building a JSON tree first.
+ * Unknown fields are skipped; missing or null fields get the same defaults the bot always used.
+ */
+public class OpportunityJsonReader {
+
+    /**
+     * One decoded page.
+     *
+     * @param opportunities the usable opportunities (entries with an ID)
+     * @param entries       number of entries the page listed, including unusable ones
+     * @param hasList       false if the body had no "opportunityPreviewDtos" array at all
+     */
+    public record Page(List<Opportunity> opportunities, int entries, boolean hasList) {
+    }
+
+    // DateTimeFormatter is immutable, so it can be shared by concurrent searches
+    private static final DateTimeFormatter DATE_FORMAT =
+            DateTimeFormatter.ofPattern("yyyy-MM-dd").withZone(ZoneId.systemDefault());
+
+    /**
+     * Decodes one API response page.
+     *
+     * @param in the response body; it is read to the end but not closed
+     * @return the opportunities of the page, empty if the page has none
+     * @throws IOException if the body is not valid JSON
+     */
+    public static List<Opportunity> readPage(Reader in) throws IOException {
+        return read(in).opportunities();
+    }
+
+    /**
+     * Decodes one API response page, also reporting how many entries it listed, so callers
+     * paging through the catalog can tell a short page from entries that were skipped.
+     *
+     * @param in the response body; it is read to the end but not closed
+     * @return the decoded page
+     * @throws IOException if the body is not valid JSON
+     */
+    public static Page read(Reader in) throws IOException {
+        List<Opportunity> results = new ArrayList<>();
+        int entries = 0;
+        boolean hasList = false;
+        JsonReader reader = new JsonReader(in);
+
+        reader.beginObject();
+        while (reader.hasNext()) {
+            if (reader.nextName().equals("opportunityPreviewDtos") && reader.peek() == JsonToken.BEGIN_ARRAY) {
+                hasList = true;
+                reader.beginArray();
+                while (reader.hasNext()) {
+                    entries++;
+                    if (reader.peek() != JsonToken.BEGIN_OBJECT) {
+                        reader.skipValue();
+                        continue;
+                    }
+                    Opportunity opp = readOpportunity(reader);
+                    if (opp.id != null) results.add(opp); // Entries without an ID cannot be stored or deduplicated
+                }
+                reader.endArray();
+            } else {
+                reader.skipValue();
+            }
+        }
+        reader.endObject();
+        return new Page(results, entries, hasList);
+    }
+
+    /**
+     * Reads a single opportunity object.
+     */
+    private static Opportunity readOpportunity(JsonReader reader) throws IOException {
+        String id = null, name = "", description = "";
+        String company = "Unknown", jobType = "N/A", deadline = "N/A";
+        String extLink = "", wage = "", homeOffice = "", benefits = "", formReq = "", techReq = "", contact = "";
+
+        reader.beginObject();
+        while (reader.hasNext()) {
+            switch (reader.nextName()) {
+                case "opportunityId" -> id = readString(reader, null);
+                case "opportunityName" -> name = readString(reader, "");
+                case "opportunityDescription" -> description = readString(reader, "");
+                case "organizationBaseDtos" -> company = readFirstObjectField(reader, "organizationName", company);
+                case "jobTypes" -> jobType = readFirstJobType(reader, jobType);
+                case "opportunitySignupDate" -> {
+                    if (reader.peek() == JsonToken.NUMBER) {
+                        deadline = DATE_FORMAT.format(Instant.ofEpochMilli(reader.nextLong()));
+                    } else {
+                        reader.skipValue();
+                    }
+                }
+                case "opportunityExtLink" -> extLink = readString(reader, "");
+                case "opportunityWage" -> wage = readString(reader, "");
+                case "opportunityHomeOffice" -> homeOffice = readString(reader, "");
+                case "opportunityBenefit" -> benefits = readString(reader, "");
+                case "opportunityFormReq" -> formReq = readString(reader, "");
+                case "opportunityTechReq" -> techReq = readString(reader, "");
+                case "expertPreviews" -> contact = readFirstObjectField(reader, "name", contact);
+                default -> reader.skipValue();
+            }
+        }
+        reader.endObject();
+
+        return new Opportunity(id, name, company, jobType, deadline, description, extLink,
+                wage, homeOffice, benefits, formReq, techReq, contact);
+    }
+
+    /**
+     * Reads a scalar as text (strings, numbers and booleans); null or non-scalar values yield the default.
+     */
+    private static String readString(JsonReader reader, String defaultValue) throws IOException {
+        switch (reader.peek()) {
+            case STRING, NUMBER -> {
+                return reader.nextString();
+            }
+            case BOOLEAN -> {
+                return String.valueOf(reader.nextBoolean());
+            }
+            case NULL -> {
+                reader.nextNull();
+                return defaultValue;
+            }
+            default -> {
+                reader.skipValue();
+                return defaultValue;
+            }
+        }
+    }
+
+    /**
+     * Reads an array of objects and returns the given field of its first element.
+     */
+    private static String readFirstObjectField(JsonReader reader, String field, String defaultValue) throws IOException {
+        if (reader.peek() != JsonToken.BEGIN_ARRAY) {
+            reader.skipValue();
+            return defaultValue;
+        }
+
+        String value = defaultValue;
+        boolean first = true;
+        reader.beginArray();
+        while (reader.hasNext()) {
+            if (first && reader.peek() == JsonToken.BEGIN_OBJECT) {
+                reader.beginObject();
+                while (reader.hasNext()) {
+                    if (reader.nextName().equals(field)) {
+                        value = readString(reader, defaultValue);
+                    } else {
+                        reader.skipValue();
+                    }
+                }
+                reader.endObject();
+            } else {
+                reader.skipValue();
+            }
+            first = false;
+        }
+        reader.endArray();
+        return value;
+    }
+
+    /**
+     * Reads the "jobTypes" array and formats its first entry as "Type n".
+     */
+    private static String readFirstJobType(JsonReader reader, String defaultValue) throws IOException {
+        if (reader.peek() != JsonToken.BEGIN_ARRAY) {
+            reader.skipValue();
+            return defaultValue;
+        }
+
+        String value = defaultValue;
+        boolean first = true;
+        reader.beginArray();
+        while (reader.hasNext()) {
+            if (first && reader.peek() == JsonToken.NUMBER) {
+                value = "Type " + reader.nextInt();
+            } else {
+                reader.skipValue();
+            }
+            first = false;
+        }
+        reader.endArray();
+        return value;
+    }
+}
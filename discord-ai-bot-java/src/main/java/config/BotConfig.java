@@ -0,0 +1,51 @@
+package config;
+
+/**
+ * BotConfig reads optional tuning settings for the bot.
+ * Each value is looked up as an environment variable first, then as a JVM system property,
+ * and falls back to the given default when neither is set or the value is invalid.
+ */
+public class BotConfig {
+
+    /**
+     * Returns the raw setting value, or the default when it is not set.
+     *
+     * @param name         the setting name, e.g. "SEARCH_PARALLELISM"
+     * @param defaultValue value used when the setting is missing
+     * @return the configured value or the default
+     */
+    public static String getString(String name, String defaultValue) {
+        String value = System.getenv(name);
+        if (value == null || value.isBlank()) {
+            value = System.getProperty(name);
+        }
+        return (value == null || value.isBlank()) ? defaultValue : value.trim();
+    }
+
+    public static int getInt(String name, int defaultValue) {
+        String value = getString(name, null);
+        if (value == null) return defaultValue;
+        try {
+            return Integer.parseInt(value);
+        } catch (NumberFormatException e) {
+            System.err.println("⚠️ Invalid value for " + name + ": " + value + " (using " + defaultValue + ")");
+            return defaultValue;
+        }
+    }
+
+    public static long getLong(String name, long defaultValue) {
+        String value = getString(name, null);
+        if (value == null) return defaultValue;
+        try {
+            return Long.parseLong(value);
+        } catch (NumberFormatException e) {
+            System.err.println("⚠️ Invalid value for " + name + ": " + value + " (using " + defaultValue + ")");
+            return defaultValue;
+        }
+    }
+
+    public static boolean getBoolean(String name, boolean defaultValue) {
+        String value = getString(name, null);
+        return value == null ? defaultValue : Boolean.parseBoolean(value);
+    }
+}
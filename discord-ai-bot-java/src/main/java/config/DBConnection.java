@@ -1,26 +1,62 @@
 package config;
 
+import com.zaxxer.hikari.HikariConfig;
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.HikariPoolMXBean;
+
 import java.sql.Connection;
-import java.sql.DriverManager;
 import java.util.Properties;
 import java.io.InputStream;
 
 /**
  * DBConnection is responsible for reading database connection properties from
- * a properties file and providing open JDBC Connections.
+ * a properties file and providing pooled JDBC Connections.
+ * The properties are read once and a single HikariCP pool is shared by all DAOs.
  */
 public class DBConnection {
 
     private static final String PROPERTIES_FILE = "/db.properties";
 
+    // Shared connection pool, created lazily on the first getConnection() call
+    private static volatile HikariDataSource dataSource;
+
     /**
-     * Loads connection properties and returns an open JDBC Connection.
+     * Returns a connection borrowed from the shared pool.
+     * Closing the connection returns it to the pool instead of closing the socket.
      *
      * @return a Connection object to the configured database
      * @throws Exception if the properties file is missing or connection fails
      */
     public static Connection getConnection() throws Exception {
-        // 1) Load properties from the classpath
+        return getDataSource().getConnection();
+    }
+
+    /**
+     * Returns the shared pool, creating it on first use.
+     *
+     * @return the HikariCP data source used by all DAOs
+     * @throws Exception if the properties file is missing
+     */
+    public static HikariDataSource getDataSource() throws Exception {
+        HikariDataSource ds = dataSource;
+        if (ds == null) {
+            synchronized (DBConnection.class) {
+                ds = dataSource;
+                if (ds == null) {
+                    ds = new HikariDataSource(buildConfig(loadProperties()));
+                    dataSource = ds;
+                    Runtime.getRuntime().addShutdownHook(new Thread(DBConnection::close, "db-pool-shutdown"));
+                    System.out.println("✅ Database pool started: " + ds.getPoolName());
+                }
+            }
+        }
+        return ds;
+    }
+
+    /**
+     * Loads connection properties from the classpath.
+     */
+    private static Properties loadProperties() throws Exception {
         Properties props = new Properties();
         try (InputStream in = DBConnection.class.getResourceAsStream(PROPERTIES_FILE)) {
             if (in == null) {
@@ -28,14 +64,71 @@ public class DBConnection {
             }
             props.load(in);
         }
+        return props;
+    }
+
+    /**
+     * Maps db.properties onto a HikariCP configuration.
+     * Only db.url, db.user and db.password are required; pool settings fall back to defaults.
+     */
+    private static HikariConfig buildConfig(Properties props) {
+        HikariConfig config = new HikariConfig();
+        config.setPoolName("jobify-db");
 
-        // 2) Read the URL, username, and password
-        String url      = props.getProperty("db.url");
-        String user     = props.getProperty("db.user");
-        String password = props.getProperty("db.password");
+        // 1) Read the URL, username, and password
+        config.setJdbcUrl(props.getProperty("db.url"));
+        config.setUsername(props.getProperty("db.user"));
+        config.setPassword(props.getProperty("db.password"));
 
-        // 3) Create and return the JDBC connection
-        return DriverManager.getConnection(url, user, password);
+        // 2) Pool sizing and timeouts (milliseconds)
+        config.setMaximumPoolSize(intProp(props, "db.pool.maxSize", 10));
+        config.setMinimumIdle(intProp(props, "db.pool.minIdle", 2));
+        config.setConnectionTimeout(longProp(props, "db.pool.connectionTimeoutMs", 5_000));
+        config.setIdleTimeout(longProp(props, "db.pool.idleTimeoutMs", 600_000));
+        config.setMaxLifetime(longProp(props, "db.pool.maxLifetimeMs", 1_800_000));
+
+        // 3) Log a stack trace when a connection is held longer than this (0 = disabled)
+        config.setLeakDetectionThreshold(longProp(props, "db.pool.leakDetectionMs", 0));
+
+        // 4) Expose pool metrics through JMX as well as getPoolStats()
+        config.setRegisterMbeans(Boolean.parseBoolean(props.getProperty("db.pool.registerMbeans", "false")));
+        return config;
+    }
+
+    private static int intProp(Properties props, String key, int defaultValue) {
+        String value = props.getProperty(key);
+        return value == null || value.isBlank() ? defaultValue : Integer.parseInt(value.trim());
+    }
+
+    private static long longProp(Properties props, String key, long defaultValue) {
+        String value = props.getProperty(key);
+        return value == null || value.isBlank() ? defaultValue : Long.parseLong(value.trim());
+    }
+
+    /**
+     * Returns a one-line summary of the pool state (active, idle, total and waiting threads).
+     *
+     * @return pool metrics, or a short note if the pool has not been started yet
+     */
+    public static String getPoolStats() {
+        HikariDataSource ds = dataSource;
+        if (ds == null) return "pool not started";
+        HikariPoolMXBean pool = ds.getHikariPoolMXBean();
+        if (pool == null) return "pool starting";
+        return String.format("active=%d idle=%d total=%d waiting=%d max=%d",
+                pool.getActiveConnections(), pool.getIdleConnections(),
+                pool.getTotalConnections(), pool.getThreadsAwaitingConnection(),
+                ds.getMaximumPoolSize());
+    }
+
+    /**
+     * Closes the shared pool. Called automatically on JVM shutdown.
+     */
+    public static void close() {
+        HikariDataSource ds = dataSource;
+        if (ds != null && !ds.isClosed()) {
+            ds.close();
+        }
     }
 
     /**
@@ -44,8 +137,9 @@ public class DBConnection {
     public static void main(String[] args) {
         try (Connection conn = getConnection()) {
             System.out.println("✅ Successfully connected to: " + conn.getMetaData().getURL());
+            System.out.println("📊 Pool: " + getPoolStats());
         } catch (Exception e) {
             e.printStackTrace();
         }
     }
-}
\ No newline at end of file
+}
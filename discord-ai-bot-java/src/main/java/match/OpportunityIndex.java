@@ -0,0 +1,240 @@
+package match;
+
+import bot.api.OpportunityClient.Opportunity;
+
+import java.util.*;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * In-memory inverted index over opportunity text with BM25 ranking.
+ * Indexes title, description, technical and formal requirements and company name,
+ * with title and technical requirements weighted higher.
+ * Posting lists are primitive int arrays; removed documents are tombstoned and
+ * the index is compacted once too many tombstones accumulate.
+ * Safe for concurrent readers with occasional writers.
+ */
+public class OpportunityIndex {
+
+    // BM25 parameters (standard values)
+    private static final double K1 = 1.2;
+    private static final double B = 0.75;
+
+    // How many times a term counts depending on the field it appears in
+    private static final int TITLE_WEIGHT = 3;
+    private static final int TECH_REQ_WEIGHT = 2;
+    private static final int OTHER_WEIGHT = 1;
+
+    /**
+     * Growable list of (document, term frequency) pairs for one term.
+     */
+    private static final class PostingList {
+        int[] docs = new int[4];
+        int[] freqs = new int[4];
+        int size;
+        int liveDocs; // Document frequency, excluding removed documents
+
+        void add(int doc, int freq) {
+            if (size == docs.length) {
+                docs = Arrays.copyOf(docs, size * 2);
+                freqs = Arrays.copyOf(freqs, size * 2);
+            }
+            docs[size] = doc;
+            freqs[size] = freq;
+            size++;
+            liveDocs++;
+        }
+    }
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    private final Map<String, PostingList> postings = new HashMap<>();
+    private final Map<String, Integer> docByOpportunityId = new HashMap<>();
+    private Opportunity[] docs = new Opportunity[64];
+    private String[][] docTerms = new String[64][];
+    private int[] docLengths = new int[64];
+    private final BitSet live = new BitSet();
+    private int docCount;      // Slots used, including removed documents
+    private int liveCount;
+    private long totalLength;  // Sum of live document lengths
+
+    /**
+     * Adds an opportunity, replacing any previous version with the same ID.
+     */
+    public void add(Opportunity opp) {
+        addAll(List.of(opp));
+    }
+
+    /**
+     * Adds or replaces several opportunities under a single write lock.
+     */
+    public void addAll(Collection<Opportunity> opportunities) {
+        lock.writeLock().lock();
+        try {
+            for (Opportunity opp : opportunities) {
+                if (opp == null || opp.id == null) continue;
+                removeLocked(opp.id);
+                addLocked(opp);
+            }
+            compactIfNeeded();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Removes the opportunities with the given IDs, if indexed.
+     */
+    public void removeAll(Collection<String> opportunityIds) {
+        lock.writeLock().lock();
+        try {
+            for (String id : opportunityIds) {
+                removeLocked(id);
+            }
+            compactIfNeeded();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * @return number of indexed (live) opportunities
+     */
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return liveCount;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Ranks indexed opportunities against the query with BM25 and returns the best K.
+     *
+     * @param query free text or keywords, tokenized the same way as the documents
+     * @param k     maximum number of results
+     * @return matches, best first; opportunities sharing no term with the query are not returned
+     */
+    public List<TopK.Scored<Opportunity>> search(String query, int k) {
+        Set<String> queryTerms = new LinkedHashSet<>(Tokenizer.tokenize(query));
+        if (queryTerms.isEmpty() || k <= 0) return List.of();
+
+        lock.readLock().lock();
+        try {
+            if (liveCount == 0) return List.of();
+
+            double avgLength = (double) totalLength / liveCount;
+            float[] scores = new float[docCount];
+            int[] touched = new int[Math.min(docCount, 256)];
+            int touchedCount = 0;
+
+            for (String term : queryTerms) {
+                PostingList list = postings.get(term);
+                if (list == null || list.liveDocs == 0) continue;
+
+                double idf = Math.log(1 + (liveCount - list.liveDocs + 0.5) / (list.liveDocs + 0.5));
+                for (int i = 0; i < list.size; i++) {
+                    int doc = list.docs[i];
+                    if (!live.get(doc)) continue;
+
+                    int freq = list.freqs[i];
+                    double norm = K1 * (1 - B + B * docLengths[doc] / avgLength);
+                    if (scores[doc] == 0f) {
+                        if (touchedCount == touched.length) touched = Arrays.copyOf(touched, touchedCount * 2);
+                        touched[touchedCount++] = doc;
+                    }
+                    scores[doc] += (float) (idf * freq * (K1 + 1) / (freq + norm));
+                }
+            }
+
+            TopK<Opportunity> top = new TopK<>(k);
+            for (int i = 0; i < touchedCount; i++) {
+                int doc = touched[i];
+                top.offer(docs[doc], scores[doc]);
+            }
+            return top.toSortedList();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // ---- internals, called with the write lock held ----
+
+    private void addLocked(Opportunity opp) {
+        Map<String, Integer> freqs = new HashMap<>();
+        int length = 0;
+        length += countTerms(opp.title, TITLE_WEIGHT, freqs);
+        length += countTerms(opp.techReq, TECH_REQ_WEIGHT, freqs);
+        length += countTerms(opp.description, OTHER_WEIGHT, freqs);
+        length += countTerms(opp.formReq, OTHER_WEIGHT, freqs);
+        length += countTerms(opp.company, OTHER_WEIGHT, freqs);
+
+        int doc = docCount++;
+        if (doc == docs.length) {
+            int capacity = docs.length * 2;
+            docs = Arrays.copyOf(docs, capacity);
+            docTerms = Arrays.copyOf(docTerms, capacity);
+            docLengths = Arrays.copyOf(docLengths, capacity);
+        }
+        docs[doc] = opp;
+        docLengths[doc] = length;
+        docTerms[doc] = freqs.keySet().toArray(new String[0]);
+        live.set(doc);
+        liveCount++;
+        totalLength += length;
+        docByOpportunityId.put(opp.id, doc);
+
+        for (Map.Entry<String, Integer> e : freqs.entrySet()) {
+            postings.computeIfAbsent(e.getKey(), t -> new PostingList()).add(doc, e.getValue());
+        }
+    }
+
+    private static int countTerms(String text, int weight, Map<String, Integer> freqs) {
+        List<String> terms = Tokenizer.tokenize(text);
+        for (String term : terms) {
+            freqs.merge(term, weight, Integer::sum);
+        }
+        return terms.size() * weight;
+    }
+
+    private void removeLocked(String opportunityId) {
+        Integer doc = docByOpportunityId.remove(opportunityId);
+        if (doc == null || !live.get(doc)) return;
+
+        live.clear(doc);
+        liveCount--;
+        totalLength -= docLengths[doc];
+        for (String term : docTerms[doc]) {
+            PostingList list = postings.get(term);
+            if (list != null && --list.liveDocs == 0) postings.remove(term);
+        }
+        docs[doc] = null;
+        docTerms[doc] = null;
+    }
+
+    /**
+     * Rebuilds the index from live documents once removed slots outnumber live ones.
+     */
+    private void compactIfNeeded() {
+        int removed = docCount - liveCount;
+        if (removed < 64 || removed < liveCount) return;
+
+        List<Opportunity> survivors = new ArrayList<>(liveCount);
+        for (int doc = live.nextSetBit(0); doc >= 0; doc = live.nextSetBit(doc + 1)) {
+            survivors.add(docs[doc]);
+        }
+        postings.clear();
+        docByOpportunityId.clear();
+        live.clear();
+        docs = new Opportunity[Math.max(64, survivors.size() * 2)];
+        docTerms = new String[docs.length][];
+        docLengths = new int[docs.length];
+        docCount = 0;
+        liveCount = 0;
+        totalLength = 0;
+        for (Opportunity opp : survivors) {
+            addLocked(opp);
+        }
+    }
+}
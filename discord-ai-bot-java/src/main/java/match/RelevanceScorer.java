@@ -0,0 +1,132 @@
+package match;
+
+import bot.api.OpportunityClient.Opportunity;
+
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.*;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Scores opportunities against a student's profile terms (skills and preferred positions).
+ * Each profile term found in the technical requirements, title or description adds to the score,
+ * with technical requirements weighted highest, and each canonical skill or position shared through
+ * {@link SkillTaxonomy} adds more, so synonyms ("JS" / "javascript") still count. Opportunities whose deadline has passed are
+ * heavily penalised, and a stated wage or a home-office value meaning yes or partly adds a small bonus.
+ * Combined with {@link TopK}, this picks the best K of a result set without sorting all of it.
+ */
+public class RelevanceScorer {
+
+    // Points per profile term, depending on where it appears
+    private static final double TECH_REQ_WEIGHT = 3.0;
+    private static final double TITLE_WEIGHT = 2.0;
+    private static final double DESCRIPTION_WEIGHT = 1.0;
+    // Points per canonical entry shared by the profile and opportunity masks
+    private static final double TAXONOMY_WEIGHT = 2.0;
+
+    private static final double WAGE_BONUS = 0.5;
+    private static final double HOME_OFFICE_BONUS = 0.5;
+
+    // Expired opportunities keep only this share of their score, so they sink below current ones
+    private static final double EXPIRED_FACTOR = 0.1;
+
+    // Words of a home-office value that rule it out or confirm it (English and Czech)
+    private static final Set<String> HOME_OFFICE_NO = Set.of(
+            "no", "none", "not", "n", "false", "never", "ne", "nelze", "žádný", "zadny");
+    private static final Set<String> HOME_OFFICE_YES = Set.of(
+            "yes", "true", "remote", "hybrid", "full", "fully", "partial", "partially", "partly", "possible",
+            "available", "allowed", "flexible", "occasional", "occasionally", "ano", "částečně", "castecne",
+            "možný", "možné", "mozny", "mozne");
+    private static final Pattern AMOUNT = Pattern.compile("\\d+(?:[.,]\\d+)?");
+
+    /**
+     * Scores one opportunity.
+     *
+     * @param opp          the opportunity
+     * @param profileTerms distinct, tokenized profile terms
+     * @param profileMask  {@link SkillTaxonomy} mask of the profile
+     * @param today        reference date for the deadline check
+     * @return relevance score, higher is better
+     */
+    public static double score(Opportunity opp, Set<String> profileTerms, long profileMask, LocalDate today) {
+        Set<String> techReq = new HashSet<>(Tokenizer.tokenize(opp.techReq));
+        Set<String> title = new HashSet<>(Tokenizer.tokenize(opp.title));
+        Set<String> description = new HashSet<>(Tokenizer.tokenize(opp.description));
+
+        double score = 0;
+        for (String term : profileTerms) {
+            if (techReq.contains(term)) score += TECH_REQ_WEIGHT;
+            if (title.contains(term)) score += TITLE_WEIGHT;
+            if (description.contains(term)) score += DESCRIPTION_WEIGHT;
+        }
+        score += TAXONOMY_WEIGHT * SkillTaxonomy.overlap(profileMask, opp.skillMask());
+
+        if (isPresent(opp.wage)) score += WAGE_BONUS;
+        if (offersHomeOffice(opp.homeOffice)) score += HOME_OFFICE_BONUS;
+
+        LocalDate deadline = parseDeadline(opp.deadline);
+        if (deadline != null && deadline.isBefore(today)) score *= EXPIRED_FACTOR;
+        return score;
+    }
+
+    /**
+     * Returns the K opportunities most relevant to the profile.
+     *
+     * @param candidates  opportunities to choose from (for example the union of several keyword searches)
+     * @param profileText skills and positions as free text
+     * @param k           maximum number of results
+     * @return the selected opportunities, best first
+     */
+    public static List<Opportunity> topK(Collection<Opportunity> candidates, String profileText, int k) {
+        if (candidates.isEmpty() || k <= 0) return List.of();
+
+        Set<String> profileTerms = new LinkedHashSet<>(Tokenizer.tokenize(profileText));
+        long profileMask = SkillTaxonomy.encode(profileText);
+        LocalDate today = LocalDate.now();
+        TopK<Opportunity> top = new TopK<>(k);
+        for (Opportunity opp : candidates) {
+            top.offer(opp, score(opp, profileTerms, profileMask, today));
+        }
+
+        List<Opportunity> result = new ArrayList<>(top.size());
+        for (TopK.Scored<Opportunity> scored : top.toSortedList()) {
+            result.add(scored.item());
+        }
+        return result;
+    }
+
+    /**
+     * Parses a yyyy-MM-dd deadline (a time part, if any, is ignored).
+     *
+     * @return the date, or null for blank or placeholder values such as "N/A"
+     */
+    static LocalDate parseDeadline(String deadline) {
+        if (deadline == null || deadline.length() < 10) return null;
+        try {
+            return LocalDate.parse(deadline.substring(0, 10));
+        } catch (DateTimeParseException e) {
+            return null;
+        }
+    }
+
+    private static boolean isPresent(String value) {
+        return value != null && !value.isBlank() && !value.equalsIgnoreCase("N/A");
+    }
+
+    /**
+     * @return true if a home-office value means yes or partly ("Yes", "Hybrid", "2 days a week", "50%"),
+     *         false for negative, zero or unrecognised values ("No", "None", "0%", "N/A")
+     */
+    static boolean offersHomeOffice(String value) {
+        if (!isPresent(value)) return false;
+        String text = value.toLowerCase(Locale.ROOT);
+        List<String> words = Arrays.asList(text.split("[^\\p{L}\\p{N}]+"));
+        if (words.stream().anyMatch(HOME_OFFICE_NO::contains)) return false;
+
+        // A stated amount (days per week, a percentage) decides on its own
+        Matcher amount = AMOUNT.matcher(text);
+        if (amount.find()) return Double.parseDouble(amount.group().replace(',', '.')) > 0;
+        return words.stream().anyMatch(HOME_OFFICE_YES::contains);
+    }
+}
@@ -0,0 +1,159 @@
+package match;
+
+import java.util.*;
+
+/**
+ * Canonical list of the skills and positions the bot matches on, each with its synonyms
+ * ("Spring Boot" → spring, "JS" → javascript, "C#" → csharp, ...).
+ * Every canonical entry owns one bit of a {@code long}, so a profile or an opportunity is encoded
+ * once as a mask and the overlap of two of them is a single {@code Long.bitCount(a & b)}.
+ * Masks are stored in the database, so each entry's bit is fixed explicitly: new entries take an
+ * unused bit, and the bit of a removed entry is never given to another one.
+ * Comma-separated values such as the stored skill and position menu selections are looked up by
+ * canonical name; free text is scanned for the synonym phrases.
+ */
+public class SkillTaxonomy {
+
+    private record Phrase(String[] tokens, int bit) {
+    }
+
+    // Canonical name → bit, and bit → canonical name
+    private static final Map<String, Integer> bitByName = new HashMap<>();
+    private static final String[] names = new String[Long.SIZE];
+    // First token of a synonym → the phrases starting with it
+    private static final Map<String, List<Phrase>> phrasesByFirstToken = new HashMap<>();
+
+    static {
+        // Skills offered in the registration menu
+        entry(0, "java", "java", "jvm");
+        entry(1, "python", "python", "django", "flask");
+        entry(2, "javascript", "javascript", "js", "ecmascript");
+        entry(3, "react", "react", "reactjs", "react js");
+        entry(4, "spring", "spring", "spring boot", "springboot");
+        entry(5, "node", "node", "nodejs", "node js");
+        entry(6, "cpp", "cpp", "c++", "cplusplus");
+        entry(7, "csharp", "csharp", "c#", "c sharp");
+        entry(8, "aspnet", "aspnet", "asp net", "dotnet");
+        entry(9, "sql", "sql", "postgresql", "postgres", "mysql", "sqlite", "mssql");
+        entry(10, "git", "git", "github", "gitlab");
+        entry(11, "docker", "docker", "containers", "containerization");
+        entry(12, "linux", "linux", "unix", "bash");
+        entry(13, "os", "operating system", "operating systems");
+        entry(14, "data_science", "data science", "data scientist");
+        entry(15, "ml", "ml", "machine learning");
+        entry(16, "dl", "deep learning", "neural network", "neural networks");
+        entry(17, "recommender", "recommender", "recommender system", "recommender systems",
+                "recommendation system", "recommendation systems");
+        entry(18, "customer_service", "customer service", "customer support");
+        entry(19, "security", "security", "cybersecurity", "cyber security", "infosec");
+        entry(20, "explainability", "explainability", "explainable ai", "xai", "interpretability");
+        entry(21, "software_tool", "software tool", "software tools");
+        entry(22, "memory", "memory management");
+        entry(23, "cache_storage", "cache", "caching", "redis");
+
+        // Other common technologies
+        entry(24, "typescript", "typescript");
+        entry(25, "kotlin", "kotlin");
+        entry(26, "go", "golang");
+        entry(27, "php", "php", "laravel", "symfony");
+        entry(28, "angular", "angular", "angularjs");
+        entry(29, "vue", "vue", "vuejs", "vue js");
+        entry(30, "html_css", "html", "css", "html5", "css3");
+        entry(31, "aws", "aws", "amazon web services");
+        entry(32, "azure", "azure");
+        entry(33, "kubernetes", "kubernetes", "k8s", "openshift");
+
+        // Positions offered in the registration menu
+        entry(34, "backend", "backend", "back end", "server side");
+        entry(35, "frontend", "frontend", "front end");
+        entry(36, "fullstack", "fullstack", "full stack");
+        entry(37, "mobile", "mobile", "android", "ios");
+        entry(38, "qa", "qa", "quality assurance", "tester", "test automation");
+        entry(39, "devops", "devops", "sre", "site reliability", "ci cd");
+        // Plain "data" is too common in free text; it only counts as a selected menu value.
+        // The position menu labels it "Data Engineering / Analytics"; data science is entry 14
+        entry(40, "data", "data engineer", "data engineering", "data analyst", "data analytics", "big data");
+    }
+
+    /**
+     * Encodes text as a mask of the canonical entries it mentions.
+     *
+     * @param text comma-separated canonical values and/or free text, may be null
+     * @return bit mask, 0 if nothing is recognised
+     */
+    public static long encode(String text) {
+        if (text == null || text.isBlank()) return 0L;
+
+        long mask = 0L;
+        for (String value : text.split(",")) {
+            Integer bit = bitByName.get(normalize(value));
+            if (bit != null) mask |= 1L << bit;
+        }
+
+        List<String> tokens = Tokenizer.tokenize(text);
+        for (int i = 0; i < tokens.size(); i++) {
+            List<Phrase> candidates = phrasesByFirstToken.get(tokens.get(i));
+            if (candidates == null) continue;
+            for (Phrase phrase : candidates) {
+                if (matchesAt(tokens, i, phrase.tokens())) mask |= 1L << phrase.bit();
+            }
+        }
+        return mask;
+    }
+
+    /**
+     * @return number of canonical entries two masks share
+     */
+    public static int overlap(long a, long b) {
+        return Long.bitCount(a & b);
+    }
+
+    /**
+     * @return canonical names of the entries in the mask, in bit order
+     */
+    public static List<String> names(long mask) {
+        List<String> result = new ArrayList<>(Long.bitCount(mask));
+        for (int bit = 0; bit < Long.SIZE; bit++) {
+            if ((mask & (1L << bit)) != 0 && names[bit] != null) result.add(names[bit]);
+        }
+        return result;
+    }
+
+    /**
+     * Declares a canonical entry.
+     *
+     * @param bit      permanent bit of the entry (0-63); never renumber or reuse one
+     * @param name     canonical name, also matched as a comma-separated value
+     * @param synonyms phrases that mark the entry in free text
+     */
+    private static void entry(int bit, String name, String... synonyms) {
+        if (bit < 0 || bit >= Long.SIZE) {
+            throw new IllegalStateException("Skill taxonomy bit " + bit + " of " + name + " does not fit a long mask");
+        }
+        if (names[bit] != null || bitByName.containsKey(name)) {
+            throw new IllegalStateException("Skill taxonomy bit " + bit + " or name " + name + " is already used");
+        }
+        names[bit] = name;
+        bitByName.put(name, bit);
+        for (String synonym : synonyms) {
+            List<String> tokens = Tokenizer.tokenize(synonym);
+            if (tokens.isEmpty()) continue;
+            phrasesByFirstToken.computeIfAbsent(tokens.get(0), t -> new ArrayList<>())
+                    .add(new Phrase(tokens.toArray(new String[0]), bit));
+        }
+    }
+
+    private static boolean matchesAt(List<String> tokens, int start, String[] phrase) {
+        if (start + phrase.length > tokens.size()) return false;
+        for (int j = 1; j < phrase.length; j++) {
+            if (!tokens.get(start + j).equals(phrase[j])) return false;
+        }
+        return true;
+    }
+
+    // "Data Science" / "data-science" / " data_science " → "data_science"
+    private static String normalize(String value) {
+        return value.trim().toLowerCase(Locale.ROOT).replaceAll("[^\\p{L}\\p{N}+#]+", "_")
+                .replaceAll("^_+|_+$", "");
+    }
+}
@@ -0,0 +1,139 @@
+package match;
+
+import java.util.*;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Every student's {@link SkillTaxonomy} mask in two parallel primitive arrays (IDs and masks).
+ * Matching one opportunity against the whole student base is a linear scan of {@code long}s with
+ * one AND and one popcount per student, with no per-term lookups or allocations.
+ * Safe for concurrent readers with occasional writers.
+ */
+public class StudentMaskTable {
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    private String[] ids = new String[16];
+    private long[] masks = new long[16];
+    private int size = 0;
+    // Discord ID → slot in the arrays
+    private final Map<String, Integer> slots = new HashMap<>();
+
+    /**
+     * Stores a student's mask, replacing the previous one; a zero mask removes the student.
+     */
+    public void put(String discordId, long mask) {
+        lock.writeLock().lock();
+        try {
+            putLocked(discordId, mask);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Removes a student, if present.
+     */
+    public void remove(String discordId) {
+        lock.writeLock().lock();
+        try {
+            removeLocked(discordId);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Replaces the whole table with the given masks under a single write lock.
+     *
+     * @param masksById map of Discord ID to mask
+     */
+    public void replaceAll(Map<String, Long> masksById) {
+        lock.writeLock().lock();
+        try {
+            int capacity = Math.max(16, masksById.size());
+            ids = new String[capacity];
+            masks = new long[capacity];
+            size = 0;
+            slots.clear();
+            masksById.forEach(this::putLocked);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Finds the students sharing at least {@code minOverlap} entries with the opportunity mask.
+     * Students whose whole profile has fewer entries than that need to share all of them.
+     *
+     * @param opportunityMask mask of the opportunity
+     * @param minOverlap      required number of shared entries
+     * @return map of Discord ID to the number of shared entries
+     */
+    public Map<String, Integer> match(long opportunityMask, int minOverlap) {
+        Map<String, Integer> hits = new HashMap<>();
+        if (opportunityMask == 0L) return hits;
+
+        lock.readLock().lock();
+        try {
+            for (int i = 0; i < size; i++) {
+                long mask = masks[i];
+                int shared = Long.bitCount(mask & opportunityMask);
+                if (shared > 0 && shared >= Math.min(minOverlap, Long.bitCount(mask))) {
+                    hits.put(ids[i], shared);
+                }
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+        return hits;
+    }
+
+    /**
+     * @return number of students in the table
+     */
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return size;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private void putLocked(String discordId, long mask) {
+        if (mask == 0L) {
+            removeLocked(discordId);
+            return;
+        }
+        Integer slot = slots.get(discordId);
+        if (slot != null) {
+            masks[slot] = mask;
+            return;
+        }
+        if (size == ids.length) {
+            ids = Arrays.copyOf(ids, size * 2);
+            masks = Arrays.copyOf(masks, size * 2);
+        }
+        ids[size] = discordId;
+        masks[size] = mask;
+        slots.put(discordId, size);
+        size++;
+    }
+
+    private void removeLocked(String discordId) {
+        Integer slot = slots.remove(discordId);
+        if (slot == null) return;
+
+        // Move the last entry into the freed slot so the arrays stay dense
+        int last = --size;
+        if (slot != last) {
+            ids[slot] = ids[last];
+            masks[slot] = masks[last];
+            slots.put(ids[slot], slot);
+        }
+        ids[last] = null;
+        masks[last] = 0L;
+    }
+}
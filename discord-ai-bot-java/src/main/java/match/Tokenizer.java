@@ -0,0 +1,37 @@
+package match;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.regex.Pattern;
+
+/**
+ * Splits free text into lower-case search terms.
+ * Letters, digits, '+' and '#' are kept together so terms such as "c++" and "c#" survive;
+ * everything else (spaces, punctuation, underscores) separates terms.
+ */
+public class Tokenizer {
+
+    private static final Pattern SEPARATORS = Pattern.compile("[^\\p{L}\\p{N}+#]+");
+
+    // Very common English words that carry no matching signal
+    private static final Set<String> STOP_WORDS = Set.of(
+            "a", "an", "and", "are", "as", "at", "be", "by", "for", "from", "in", "is", "it",
+            "of", "on", "or", "the", "to", "with", "we", "you", "our", "your", "will", "this", "that");
+
+    /**
+     * @param text any text, may be null
+     * @return the terms in order of appearance (duplicates included)
+     */
+    public static List<String> tokenize(String text) {
+        List<String> terms = new ArrayList<>();
+        if (text == null || text.isBlank()) return terms;
+
+        for (String raw : SEPARATORS.split(text.toLowerCase(Locale.ROOT))) {
+            if (raw.isEmpty() || STOP_WORDS.contains(raw)) continue;
+            terms.add(raw);
+        }
+        return terms;
+    }
+}
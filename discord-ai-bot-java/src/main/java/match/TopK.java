@@ -0,0 +1,63 @@
+package match;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+
+/**
+ * Keeps the K highest-scored items seen so far using a bounded min-heap,
+ * so selecting the best K of N candidates costs O(N log K) instead of sorting all N.
+ *
+ * @param <T> item type
+ */
+public class TopK<T> {
+
+    /**
+     * An item together with its score.
+     */
+    public record Scored<T>(T item, double score) {
+    }
+
+    private final int k;
+    // Min-heap: the root is the weakest of the current top K and is replaced first
+    private final PriorityQueue<Scored<T>> heap;
+
+    public TopK(int k) {
+        if (k <= 0) throw new IllegalArgumentException("k must be positive");
+        this.k = k;
+        this.heap = new PriorityQueue<>(Math.min(k, 1024), Comparator.comparingDouble(Scored::score));
+    }
+
+    /**
+     * Offers a candidate; it is kept only if it beats the weakest of the current top K.
+     */
+    public void offer(T item, double score) {
+        if (heap.size() < k) {
+            heap.add(new Scored<>(item, score));
+        } else if (score > heap.peek().score()) {
+            heap.poll();
+            heap.add(new Scored<>(item, score));
+        }
+    }
+
+    /**
+     * @return the lowest score that would still enter the top K, or negative infinity while not full
+     */
+    public double threshold() {
+        return heap.size() < k ? Double.NEGATIVE_INFINITY : heap.peek().score();
+    }
+
+    public int size() {
+        return heap.size();
+    }
+
+    /**
+     * @return the kept items, best first
+     */
+    public List<Scored<T>> toSortedList() {
+        List<Scored<T>> list = new ArrayList<>(heap);
+        list.sort(Comparator.comparingDouble((Scored<T> s) -> s.score()).reversed());
+        return list;
+    }
+}
@@ -0,0 +1,211 @@
+package storage;
+
+import bot.api.OpportunityClient.Opportunity;
+import config.DBConnection;
+
+import java.sql.*;
+import java.sql.Date;
+import java.util.*;
+
+/**
+ * Data Access Object for the 'opportunity_catalog' table.
+ * The catalog holds one row per EXPERTS.AI opportunity, independent of any user,
+ * together with a content hash so the background sync only rewrites rows that changed.
+ */
+public class CatalogDAO {
+
+    // Rows per multi-row upsert; 16 binds per row keeps the statement below the Postgres bind limit
+    private static final int MAX_ROWS_PER_STATEMENT = 500;
+
+    private static final String SELECT_COLUMNS = """
+        opportunity_id, title, description, job_type, application_deadline,
+        url, wage, home_office, benefits, formal_requirements,
+        technical_requirements, contact_person, company, skill_mask
+        """;
+
+    /**
+     * Loads the content hash of every active catalog row.
+     *
+     * @return map of opportunity ID to content hash
+     * @throws Exception if the query fails
+     */
+    public static Map<String, String> loadActiveHashes() throws Exception {
+        String sql = "SELECT opportunity_id, content_hash FROM opportunity_catalog WHERE active";
+        Map<String, String> hashes = new HashMap<>();
+
+        try (Connection conn = DBConnection.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql);
+             ResultSet rs = stmt.executeQuery()) {
+            while (rs.next()) {
+                hashes.put(rs.getString(1), rs.getString(2));
+            }
+        }
+        return hashes;
+    }
+
+    /**
+     * Inserts new catalog rows and rewrites existing ones whose content hash changed
+     * (or that were previously marked inactive). Unchanged rows are left untouched.
+     *
+     * @param opportunities opportunities fetched from the API
+     * @return IDs of the rows that were inserted or updated
+     * @throws Exception if the upsert fails
+     */
+    public static Set<String> upsertAll(Collection<Opportunity> opportunities) throws Exception {
+        Map<String, Opportunity> byId = new LinkedHashMap<>();
+        for (Opportunity opp : opportunities) {
+            if (opp != null && opp.id != null) byId.put(opp.id, opp);
+        }
+        Set<String> written = new HashSet<>();
+        if (byId.isEmpty()) return written;
+
+        List<Opportunity> rows = new ArrayList<>(byId.values());
+        try (Connection conn = DBConnection.getConnection()) {
+            for (int from = 0; from < rows.size(); from += MAX_ROWS_PER_STATEMENT) {
+                List<Opportunity> chunk = rows.subList(from, Math.min(rows.size(), from + MAX_ROWS_PER_STATEMENT));
+
+                String sql = """
+                    INSERT INTO opportunity_catalog (
+                        opportunity_id, content_hash, title, description, job_type, application_deadline,
+                        url, wage, home_office, benefits, formal_requirements,
+                        technical_requirements, contact_person, company, skill_mask, active
+                    ) VALUES %s
+                    ON CONFLICT (opportunity_id) DO UPDATE
+                      SET content_hash           = EXCLUDED.content_hash,
+                          title                  = EXCLUDED.title,
+                          description            = EXCLUDED.description,
+                          job_type               = EXCLUDED.job_type,
+                          application_deadline   = EXCLUDED.application_deadline,
+                          url                    = EXCLUDED.url,
+                          wage                   = EXCLUDED.wage,
+                          home_office            = EXCLUDED.home_office,
+                          benefits               = EXCLUDED.benefits,
+                          formal_requirements    = EXCLUDED.formal_requirements,
+                          technical_requirements = EXCLUDED.technical_requirements,
+                          contact_person         = EXCLUDED.contact_person,
+                          company                = EXCLUDED.company,
+                          skill_mask             = EXCLUDED.skill_mask,
+                          active                 = TRUE,
+                          updated_at             = now()
+                      WHERE opportunity_catalog.content_hash <> EXCLUDED.content_hash
+                         OR NOT opportunity_catalog.active
+                    RETURNING opportunity_id
+                    """.formatted(String.join(", ",
+                        Collections.nCopies(chunk.size(), "(?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, TRUE)")));
+
+                try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+                    int i = 0;
+                    for (Opportunity opp : chunk) {
+                        stmt.setString(++i, opp.id);
+                        stmt.setString(++i, opp.contentHash());
+                        stmt.setString(++i, opp.title);
+                        stmt.setString(++i, opp.description);
+                        stmt.setString(++i, opp.type);
+                        Date deadline = OpportunityDAO.toSqlDate(opp.deadline);
+                        if (deadline != null) {
+                            stmt.setDate(++i, deadline);
+                        } else {
+                            stmt.setNull(++i, Types.DATE);
+                        }
+                        stmt.setString(++i, OpportunityDAO.emptyToNull(opp.url));
+                        stmt.setString(++i, OpportunityDAO.emptyToNull(opp.wage));
+                        stmt.setString(++i, OpportunityDAO.emptyToNull(opp.homeOffice));
+                        stmt.setString(++i, OpportunityDAO.emptyToNull(opp.benefits));
+                        stmt.setString(++i, OpportunityDAO.emptyToNull(opp.formReq));
+                        stmt.setString(++i, OpportunityDAO.emptyToNull(opp.techReq));
+                        stmt.setString(++i, OpportunityDAO.emptyToNull(opp.contactPerson));
+                        stmt.setString(++i, OpportunityDAO.emptyToNull(opp.company));
+                        stmt.setLong(++i, opp.skillMask());
+                    }
+                    try (ResultSet rs = stmt.executeQuery()) {
+                        while (rs.next()) {
+                            written.add(rs.getString(1));
+                        }
+                    }
+                }
+            }
+        }
+        return written;
+    }
+
+    /**
+     * Marks every active row that was not seen in the latest full sync as inactive.
+     *
+     * @param seenIds IDs returned by the API during the sync
+     * @return IDs of the rows that were deactivated
+     * @throws Exception if the update fails
+     */
+    public static Set<String> deactivateMissing(Set<String> seenIds) throws Exception {
+        String sql = """
+            UPDATE opportunity_catalog
+            SET active = FALSE, updated_at = now()
+            WHERE active AND NOT (opportunity_id = ANY (?))
+            RETURNING opportunity_id
+            """;
+        Set<String> removed = new HashSet<>();
+
+        try (Connection conn = DBConnection.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql)) {
+            stmt.setArray(1, conn.createArrayOf("text", seenIds.toArray()));
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    removed.add(rs.getString(1));
+                }
+            }
+        }
+        return removed;
+    }
+
+    /**
+     * Loads all active catalog rows.
+     *
+     * @return list of active opportunities
+     * @throws Exception if the query fails
+     */
+    public static List<Opportunity> getAllActive() throws Exception {
+        String sql = "SELECT " + SELECT_COLUMNS + " FROM opportunity_catalog WHERE active";
+        List<Opportunity> list = new ArrayList<>();
+
+        try (Connection conn = DBConnection.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql);
+             ResultSet rs = stmt.executeQuery()) {
+            while (rs.next()) {
+                list.add(mapRow(rs));
+            }
+        }
+        return list;
+    }
+
+    /**
+     * Maps a catalog row to an Opportunity, filling the same display defaults as the API parser
+     * so the result can be rendered with toEmbed() directly.
+     */
+    private static Opportunity mapRow(ResultSet rs) throws SQLException {
+        Opportunity opp = new Opportunity();
+        opp.id = rs.getString("opportunity_id");
+        opp.title = orDefault(rs.getString("title"), "");
+        opp.description = orDefault(rs.getString("description"), "");
+        opp.type = orDefault(rs.getString("job_type"), "N/A");
+
+        Date deadline = rs.getDate("application_deadline");
+        opp.deadline = (deadline != null) ? deadline.toString() : "N/A";
+
+        opp.url = orDefault(rs.getString("url"), "");
+        opp.wage = orDefault(rs.getString("wage"), "");
+        opp.homeOffice = orDefault(rs.getString("home_office"), "");
+        opp.benefits = orDefault(rs.getString("benefits"), "");
+        opp.formReq = orDefault(rs.getString("formal_requirements"), "");
+        opp.techReq = orDefault(rs.getString("technical_requirements"), "");
+        opp.contactPerson = orDefault(rs.getString("contact_person"), "");
+        opp.company = orDefault(rs.getString("company"), "Unknown");
+
+        // Rows written before the column existed are encoded on first use instead
+        long skillMask = rs.getLong("skill_mask");
+        if (!rs.wasNull()) opp.setSkillMask(skillMask);
+        return opp;
+    }
+
+    private static String orDefault(String value, String defaultValue) {
+        return value != null ? value : defaultValue;
+    }
+}
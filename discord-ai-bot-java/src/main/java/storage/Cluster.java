@@ -0,0 +1,197 @@
+package storage;
+
+import config.BotConfig;
+import config.DBConnection;
+import org.postgresql.PGConnection;
+import org.postgresql.PGNotification;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+
+/**
+ * Coordinates several bot processes that share one Postgres database (CLUSTER_ENABLED).
+ * Mutual exclusion uses Postgres advisory locks, keyed by a 64-bit hash of a name, and
+ * cross-process messages use LISTEN/NOTIFY on a single channel. A dedicated connection
+ * (taken from the pool for the lifetime of the process) receives the notifications.
+ * An advisory lock keeps its connection borrowed while the body runs, so locks are only used for
+ * rare background jobs, never per user request.
+ * With clustering disabled, locks are no-ops and published events are dropped.
+ */
+public class Cluster {
+
+    private static final boolean ENABLED = BotConfig.getBoolean("CLUSTER_ENABLED", false);
+    private static final String CHANNEL = "jobify_events";
+
+    // Pooled connections held outside request handling: the LISTEN connection, plus the catalog-sync
+    // lock connection and the one its body borrows while the lock is held
+    private static final int RESERVED_CONNECTIONS = 3;
+
+    // Notifications are sent to every listener, including this process; the ID lets us skip our own
+    private static final String INSTANCE_ID = UUID.randomUUID().toString().substring(0, 8);
+
+    private static final Map<String, List<Consumer<String>>> subscribers = new ConcurrentHashMap<>();
+    private static Thread listener;
+
+    public static boolean isEnabled() {
+        return ENABLED;
+    }
+
+    public static String instanceId() {
+        return INSTANCE_ID;
+    }
+
+    /**
+     * Runs the body only if no other process is running it under the same name right now.
+     *
+     * @param name lock name, e.g. "catalog-sync"
+     * @return false if another process holds the lock and the body was skipped
+     * @throws Exception if the body fails or the database cannot be reached
+     */
+    public static boolean runIfFree(String name, Callable<Void> body) throws Exception {
+        if (!ENABLED) {
+            body.call();
+            return true;
+        }
+        try (Connection conn = DBConnection.getConnection()) {
+            if (!lockCall(conn, "SELECT pg_try_advisory_lock(?)", name)) return false;
+            try {
+                body.call();
+                return true;
+            } finally {
+                lockCall(conn, "SELECT pg_advisory_unlock(?)", name);
+            }
+        }
+    }
+
+    /**
+     * Sends an event to the other processes of the cluster. Delivery happens after the
+     * sending transaction commits; a process that is down misses it.
+     *
+     * @param topic   event name, e.g. "catalog"
+     * @param payload short text (NOTIFY payloads are limited to about 8000 bytes)
+     */
+    public static void publish(String topic, String payload) {
+        if (!ENABLED) return;
+        try (Connection conn = DBConnection.getConnection();
+             PreparedStatement stmt = conn.prepareStatement("SELECT pg_notify(?, ?)")) {
+            stmt.setString(1, CHANNEL);
+            stmt.setString(2, topic + "|" + INSTANCE_ID + "|" + (payload == null ? "" : payload));
+            stmt.execute();
+        } catch (Exception e) {
+            System.out.println("⚠️ Failed to publish cluster event " + topic + ": " + e.getMessage());
+        }
+    }
+
+    /**
+     * Registers a handler for events published by other processes. Handlers run on the
+     * listener thread, so they should be short or hand work off.
+     */
+    public static void subscribe(String topic, Consumer<String> handler) {
+        subscribers.computeIfAbsent(topic, t -> new CopyOnWriteArrayList<>()).add(handler);
+    }
+
+    /**
+     * Starts the notification listener thread (only when clustering is enabled).
+     *
+     * @return false if the connection pool is too small to leave room for request handling
+     *         next to the connections cluster mode keeps borrowed; the bot should not start then
+     */
+    public static synchronized boolean start() {
+        if (!ENABLED || listener != null) return true;
+
+        int poolSize;
+        try {
+            poolSize = DBConnection.getDataSource().getMaximumPoolSize();
+        } catch (Exception e) {
+            System.err.println("❌ CLUSTER_ENABLED needs the database: " + e.getMessage());
+            return false;
+        }
+        if (poolSize <= RESERVED_CONNECTIONS) {
+            System.err.println("❌ CLUSTER_ENABLED needs db.pool.maxSize above " + RESERVED_CONNECTIONS
+                    + " (currently " + poolSize + ")");
+            return false;
+        }
+
+        listener = new Thread(Cluster::listen, "cluster-listener");
+        listener.setDaemon(true);
+        listener.start();
+        System.out.println("🛰️ Cluster mode enabled, instance " + INSTANCE_ID);
+        return true;
+    }
+
+    /**
+     * Keeps a LISTEN connection open, reconnecting with a growing delay after failures.
+     */
+    private static void listen() {
+        long backoffMs = 1000;
+        while (!Thread.currentThread().isInterrupted()) {
+            try (Connection conn = DBConnection.getConnection()) {
+                try (Statement stmt = conn.createStatement()) {
+                    stmt.execute("LISTEN " + CHANNEL);
+                }
+                PGConnection pg = conn.unwrap(PGConnection.class);
+                backoffMs = 1000;
+                while (!Thread.currentThread().isInterrupted()) {
+                    PGNotification[] notifications = pg.getNotifications(10_000);
+                    if (notifications == null) continue;
+                    for (PGNotification notification : notifications) {
+                        dispatch(notification.getParameter());
+                    }
+                }
+            } catch (Exception e) {
+                System.out.println("⚠️ Cluster listener lost its connection: " + e.getMessage());
+                try {
+                    Thread.sleep(backoffMs);
+                } catch (InterruptedException ie) {
+                    return;
+                }
+                backoffMs = Math.min(backoffMs * 2, 60_000);
+            }
+        }
+    }
+
+    private static void dispatch(String message) {
+        // Format: topic|instanceId|payload
+        String[] parts = message.split("\\|", 3);
+        if (parts.length < 3 || parts[1].equals(INSTANCE_ID)) return;
+        for (Consumer<String> handler : subscribers.getOrDefault(parts[0], List.of())) {
+            try {
+                handler.accept(parts[2]);
+            } catch (Exception e) {
+                System.out.println("⚠️ Cluster event handler for " + parts[0] + " failed: " + e.getMessage());
+            }
+        }
+    }
+
+    private static boolean lockCall(Connection conn, String sql, String name) throws Exception {
+        try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+            stmt.setLong(1, lockKey(name));
+            try (ResultSet rs = stmt.executeQuery()) {
+                return rs.next() && rs.getBoolean(1);
+            }
+        }
+    }
+
+    /**
+     * Maps a lock name to the 64-bit key used by the advisory lock functions.
+     */
+    private static long lockKey(String name) throws Exception {
+        byte[] digest = MessageDigest.getInstance("SHA-256").digest(name.getBytes(StandardCharsets.UTF_8));
+        long key = 0;
+        for (int i = 0; i < 8; i++) {
+            key = (key << 8) | (digest[i] & 0xff);
+        }
+        return key;
+    }
+}
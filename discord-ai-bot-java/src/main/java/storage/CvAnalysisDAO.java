@@ -0,0 +1,131 @@
+package storage;
+
+import bot.ai.CvAnalysisCache.CvAnalysis;
+import config.DBConnection;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Timestamp;
+import java.time.Instant;
+
+/**
+ * Data Access Object for the 'cv_analysis_cache' table.
+ * Each row keeps the GPT analysis of one uploaded PDF, keyed by the SHA-256 of the file bytes
+ * and indexed by the SHA-256 of its extracted text, so a repeated upload can reuse it.
+ * The CV text itself is not stored; the hashes are only lookup keys.
+ */
+public class CvAnalysisDAO {
+
+    private static final String SELECT_COLUMNS = "pdf_sha256, text_sha256, profile_json, rating_json";
+
+    /**
+     * Finds the analysis stored for a PDF file.
+     *
+     * @param pdfHash SHA-256 hex of the PDF bytes
+     * @param since   rows created before this time are ignored
+     * @return the cached analysis, or null if none is stored
+     * @throws Exception if the query fails
+     */
+    public static CvAnalysis findByPdfHash(String pdfHash, Instant since) throws Exception {
+        return findOne("SELECT " + SELECT_COLUMNS + " FROM cv_analysis_cache WHERE pdf_sha256 = ?"
+                + " AND created_at > ?", pdfHash, since);
+    }
+
+    /**
+     * Finds an analysis of a different PDF file with the same extracted text (e.g. a re-exported file).
+     *
+     * @param textHash SHA-256 hex of the extracted text
+     * @param since    rows created before this time are ignored
+     * @return the most recent matching analysis, or null if none is stored
+     * @throws Exception if the query fails
+     */
+    public static CvAnalysis findByTextHash(String textHash, Instant since) throws Exception {
+        return findOne("SELECT " + SELECT_COLUMNS + " FROM cv_analysis_cache WHERE text_sha256 = ?"
+                + " AND created_at > ? ORDER BY created_at DESC LIMIT 1", textHash, since);
+    }
+
+    /**
+     * Stores an analysis, replacing any previous analysis of the same PDF file.
+     *
+     * @param analysis the analysis to persist
+     * @throws Exception if the upsert fails
+     */
+    public static void save(CvAnalysis analysis) throws Exception {
+        String sql = """
+            INSERT INTO cv_analysis_cache (pdf_sha256, text_sha256, profile_json, rating_json)
+            VALUES (?, ?, ?, ?)
+            ON CONFLICT (pdf_sha256) DO UPDATE
+              SET text_sha256  = EXCLUDED.text_sha256,
+                  profile_json = EXCLUDED.profile_json,
+                  rating_json  = EXCLUDED.rating_json,
+                  created_at   = now()
+            """;
+
+        try (Connection conn = DBConnection.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql)) {
+            stmt.setString(1, analysis.pdfHash());
+            stmt.setString(2, analysis.textHash());
+            stmt.setString(3, analysis.profileJson());
+            stmt.setString(4, analysis.ratingJson());
+            stmt.executeUpdate();
+        }
+    }
+
+    /**
+     * Deletes the analysis of a PDF if no student profile references the file.
+     *
+     * @param pdfHash SHA-256 hex of the PDF bytes
+     * @return the text hash of the deleted row, or null if nothing was deleted
+     * @throws Exception if the delete fails
+     */
+    public static String deleteIfUnreferenced(String pdfHash) throws Exception {
+        String sql = """
+            DELETE FROM cv_analysis_cache
+            WHERE pdf_sha256 = ?
+              AND NOT EXISTS (SELECT 1 FROM student WHERE resume_sha256 = ?)
+            RETURNING text_sha256
+            """;
+
+        try (Connection conn = DBConnection.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql)) {
+            stmt.setString(1, pdfHash);
+            stmt.setString(2, pdfHash);
+            try (ResultSet rs = stmt.executeQuery()) {
+                return rs.next() ? rs.getString("text_sha256") : null;
+            }
+        }
+    }
+
+    /**
+     * Removes analyses created before the given time.
+     *
+     * @return number of removed rows
+     * @throws Exception if the delete fails
+     */
+    public static int deleteOlderThan(Instant cutoff) throws Exception {
+        String sql = "DELETE FROM cv_analysis_cache WHERE created_at <= ?";
+
+        try (Connection conn = DBConnection.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql)) {
+            stmt.setTimestamp(1, Timestamp.from(cutoff));
+            return stmt.executeUpdate();
+        }
+    }
+
+    private static CvAnalysis findOne(String sql, String hash, Instant since) throws Exception {
+        try (Connection conn = DBConnection.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql)) {
+            stmt.setString(1, hash);
+            stmt.setTimestamp(2, Timestamp.from(since));
+            try (ResultSet rs = stmt.executeQuery()) {
+                if (!rs.next()) return null;
+                return new CvAnalysis(
+                        rs.getString("pdf_sha256"),
+                        rs.getString("text_sha256"),
+                        rs.getString("profile_json"),
+                        rs.getString("rating_json"));
+            }
+        }
+    }
+}
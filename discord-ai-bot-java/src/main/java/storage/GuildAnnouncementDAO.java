@@ -0,0 +1,61 @@
+package storage;
+
+import config.DBConnection;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * Data Access Object for the 'guild_announcement' table.
+ * Remembers which bot version was last announced in each guild, so the
+ * "now online" message is posted once per version instead of on every restart.
+ */
+public class GuildAnnouncementDAO {
+
+    /**
+     * Loads the guilds that have already seen the announcement for a version.
+     *
+     * @param version bot version being announced
+     * @return IDs of the guilds announced for that version
+     * @throws Exception if the query fails
+     */
+    public static Set<String> getAnnouncedGuilds(String version) throws Exception {
+        String sql = "SELECT guild_id FROM guild_announcement WHERE version = ?";
+        Set<String> guildIds = new HashSet<>();
+
+        try (Connection conn = DBConnection.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql)) {
+            stmt.setString(1, version);
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    guildIds.add(rs.getString("guild_id"));
+                }
+            }
+        }
+        return guildIds;
+    }
+
+    /**
+     * Records that a guild received the announcement for a version.
+     *
+     * @throws Exception if the upsert fails
+     */
+    public static void markAnnounced(String guildId, String version) throws Exception {
+        String sql = """
+            INSERT INTO guild_announcement (guild_id, version, announced_at)
+            VALUES (?, ?, now())
+            ON CONFLICT (guild_id) DO UPDATE
+              SET version = EXCLUDED.version, announced_at = EXCLUDED.announced_at
+            """;
+
+        try (Connection conn = DBConnection.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql)) {
+            stmt.setString(1, guildId);
+            stmt.setString(2, version);
+            stmt.executeUpdate();
+        }
+    }
+}
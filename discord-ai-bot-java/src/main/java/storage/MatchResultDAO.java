@@ -0,0 +1,103 @@
+package storage;
+
+import bot.api.OpportunityClient.Opportunity;
+import com.google.gson.Gson;
+import com.google.gson.reflect.TypeToken;
+import config.DBConnection;
+
+import java.lang.reflect.Type;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * Data Access Object for the 'match_result_cache' table.
+ * Shares recent "Match Me" results between bot processes in cluster mode,
+ * keyed by a hash of the user and their profile version.
+ */
+public class MatchResultDAO {
+
+    private static final Gson gson = new Gson();
+    private static final Type LIST_TYPE = new TypeToken<List<Opportunity>>() {}.getType();
+
+    /**
+     * Loads a stored result that is newer than the given time.
+     *
+     * @return the opportunities, or null if there is no recent result
+     * @throws Exception if the query fails
+     */
+    public static List<Opportunity> find(String versionHash, Instant since) throws Exception {
+        String sql = "SELECT results FROM match_result_cache WHERE version_hash = ? AND created_at > ?";
+
+        try (Connection conn = DBConnection.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql)) {
+            stmt.setString(1, versionHash);
+            stmt.setTimestamp(2, Timestamp.from(since));
+            try (ResultSet rs = stmt.executeQuery()) {
+                if (!rs.next()) return null;
+                return gson.fromJson(rs.getString("results"), LIST_TYPE);
+            }
+        }
+    }
+
+    /**
+     * Stores the result for a profile version unless another process stored one since the given time.
+     * The check and the write are a single statement on one connection, so two processes finishing
+     * the same search at once agree on one result without holding a lock during the search.
+     *
+     * @param results the result found by this process
+     * @param since   rows newer than this are kept
+     * @return the result now stored: this process's, or the one another process stored first
+     * @throws Exception if the query fails
+     */
+    public static List<Opportunity> saveIfAbsent(String versionHash, List<Opportunity> results, Instant since)
+            throws Exception {
+        String sql = """
+            INSERT INTO match_result_cache (version_hash, results, created_at)
+            VALUES (?, ?, now())
+            ON CONFLICT (version_hash) DO UPDATE
+              SET results = EXCLUDED.results, created_at = EXCLUDED.created_at
+              WHERE match_result_cache.created_at <= ?
+            RETURNING version_hash
+            """;
+
+        try (Connection conn = DBConnection.getConnection()) {
+            try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+                stmt.setString(1, versionHash);
+                stmt.setString(2, gson.toJson(results, LIST_TYPE));
+                stmt.setTimestamp(3, Timestamp.from(since));
+                try (ResultSet rs = stmt.executeQuery()) {
+                    if (rs.next()) return results;
+                }
+            }
+
+            // A fresh row already existed and was left alone; return it
+            try (PreparedStatement stmt = conn.prepareStatement(
+                    "SELECT results FROM match_result_cache WHERE version_hash = ?")) {
+                stmt.setString(1, versionHash);
+                try (ResultSet rs = stmt.executeQuery()) {
+                    return rs.next() ? gson.fromJson(rs.getString("results"), LIST_TYPE) : results;
+                }
+            }
+        }
+    }
+
+    /**
+     * Removes results created before the given time.
+     *
+     * @return number of removed rows
+     * @throws Exception if the delete fails
+     */
+    public static int deleteOlderThan(Instant cutoff) throws Exception {
+        String sql = "DELETE FROM match_result_cache WHERE created_at <= ?";
+
+        try (Connection conn = DBConnection.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql)) {
+            stmt.setTimestamp(1, Timestamp.from(cutoff));
+            return stmt.executeUpdate();
+        }
+    }
+}
@@ -3,13 +3,13 @@ package storage;
 import bot.api.OpportunityClient.Opportunity;
 import config.DBConnection;
 import java.sql.*;
-import java.util.List;
-import java.util.ArrayList;
+import java.sql.Date;
+import java.util.*;
 
 /**
  * Data Access Object (DAO) for interacting with the 'opportunities' table.
  * Handles logic for checking if an opportunity already exists for a user,
- * and inserting new opportunities into the database.
+ * and inserting new opportunities into the database (one by one or in bulk).
  */
 public class OpportunityDAO {
 
@@ -35,6 +35,21 @@ public class OpportunityDAO {
         }
     }
 
+    // Column list shared by the single-row and bulk inserts
+    private static final String INSERT_COLUMNS = """
+        opportunity_id, title, description, job_type, application_deadline,
+        discord_id, url,
+        wage, home_office, benefits, formal_requirements,
+        technical_requirements, contact_person, company
+        """;
+
+    // Placeholder group for one row; must match INSERT_COLUMNS and bindOpportunity()
+    private static final String ROW_PLACEHOLDERS = "(?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+    private static final int COLUMNS_PER_ROW = 14;
+
+    // Rows per multi-row INSERT; keeps the bind count well below the Postgres limit of 32767
+    private static final int MAX_ROWS_PER_STATEMENT = 500;
+
     /**
      * Inserts a new opportunity into the database for a specific user.
      *
@@ -43,60 +58,127 @@ public class OpportunityDAO {
      * @throws Exception if insertion fails
      */
     public static void insertForUser(Opportunity opp, String discordId) throws Exception {
-        String sql = """
-    INSERT INTO opportunities (
-        opportunity_id, title, description, job_type, application_deadline,
-        discord_id, url,
-        wage, home_office, benefits, formal_requirements,
-        technical_requirements, contact_person, company
-             ) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)
-        """;
+        String sql = "INSERT INTO opportunities (" + INSERT_COLUMNS + ") VALUES " + ROW_PLACEHOLDERS;
 
+        try (Connection conn = DBConnection.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql)) {
 
-        // Debug log showing opportunity info before inserting
-        System.out.println("\n📥 Preparing to insert opportunity:");
-        System.out.println("→ ID: " + opp.id);
-        System.out.println("→ Title: " + opp.title);
-        System.out.println("→ Wage: " + opp.wage);
-        System.out.println("→ Home Office: " + opp.homeOffice);
-        System.out.println("→ Benefits: " + opp.benefits);
-        System.out.println("→ Form Req: " + opp.formReq);
-        System.out.println("→ Tech Req: " + opp.techReq);
-        System.out.println("→ Contact: " + opp.contactPerson);
+            bindOpportunity(stmt, 0, opp, discordId);
 
+            // Insert into database
+            stmt.executeUpdate();
+        }
+    }
 
+    /**
+     * Inserts every opportunity of the batch for a user in a single multi-row statement,
+     * skipping the ones the user already has (primary key opportunity_id + discord_id).
+     * Replaces the existsForUser + insertForUser pair, which cost two queries per row.
+     *
+     * @param opportunities the opportunities to store
+     * @param discordId     the Discord user ID to associate with the opportunities
+     * @return the opportunities that were newly inserted, in input order
+     * @throws Exception if the insert fails
+     */
+    public static List<Opportunity> upsertAllForUser(Collection<Opportunity> opportunities, String discordId) throws Exception {
+        List<Opportunity> inserted = upsertForUsers(Map.of(discordId, opportunities))
+                .getOrDefault(discordId, List.of());
+        System.out.println("✅ Saved " + inserted.size() + " new of " + opportunities.size() + " opportunities for " + discordId);
+        return inserted;
+    }
 
-        try (Connection conn = DBConnection.getConnection();
-             PreparedStatement stmt = conn.prepareStatement(sql)) {
+    /**
+     * Bulk variant of {@link #upsertAllForUser} for many users at once, used by push matching:
+     * all (user, opportunity) pairs go through the same chunked multi-row statements.
+     *
+     * @param opportunitiesByUser opportunities to store, keyed by Discord user ID
+     * @return the newly inserted opportunities per user (users with nothing new are left out)
+     * @throws Exception if the insert fails
+     */
+    public static Map<String, List<Opportunity>> upsertForUsers(Map<String, ? extends Collection<Opportunity>> opportunitiesByUser) throws Exception {
+        // Drop rows without an ID and duplicates inside the batch (ON CONFLICT cannot touch a row twice)
+        List<Map.Entry<String, Opportunity>> rows = new ArrayList<>();
+        for (var entry : opportunitiesByUser.entrySet()) {
+            Map<String, Opportunity> byId = new LinkedHashMap<>();
+            for (Opportunity opp : entry.getValue()) {
+                if (opp != null && opp.id != null) byId.putIfAbsent(opp.id, opp);
+            }
+            for (Opportunity opp : byId.values()) {
+                rows.add(Map.entry(entry.getKey(), opp));
+            }
+        }
+        if (rows.isEmpty()) return Map.of();
 
-            // Basic info
-            stmt.setString(1, opp.id);
-            stmt.setString(2, opp.title);
-            stmt.setString(3, opp.description);
-            stmt.setString(4, opp.type);
+        Set<String> insertedKeys = new HashSet<>();
+        try (Connection conn = DBConnection.getConnection()) {
+            for (int from = 0; from < rows.size(); from += MAX_ROWS_PER_STATEMENT) {
+                List<Map.Entry<String, Opportunity>> chunk = rows.subList(from, Math.min(rows.size(), from + MAX_ROWS_PER_STATEMENT));
 
+                String sql = "INSERT INTO opportunities (" + INSERT_COLUMNS + ") VALUES "
+                        + String.join(", ", Collections.nCopies(chunk.size(), ROW_PLACEHOLDERS))
+                        + " ON CONFLICT (opportunity_id, discord_id) DO NOTHING RETURNING opportunity_id, discord_id";
 
-            // Convert deadline to SQL date or set null
-            if (opp.deadline != null && !opp.deadline.isBlank()) {
-                stmt.setDate(5, Date.valueOf(opp.deadline));
-            } else {
-                stmt.setNull(5, Types.DATE);
+                try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+                    for (int i = 0; i < chunk.size(); i++) {
+                        bindOpportunity(stmt, i * COLUMNS_PER_ROW, chunk.get(i).getValue(), chunk.get(i).getKey());
+                    }
+                    try (ResultSet rs = stmt.executeQuery()) {
+                        while (rs.next()) {
+                            insertedKeys.add(rs.getString(2) + "/" + rs.getString(1));
+                        }
+                    }
+                }
             }
+        }
 
-            // Associate with user and optional fields
-            stmt.setString(6, discordId);
-            stmt.setString(7, emptyToNull(opp.url));
-            stmt.setString(8, emptyToNull(opp.wage));
-            stmt.setString(9, emptyToNull(opp.homeOffice));
-            stmt.setString(10, emptyToNull(opp.benefits));
-            stmt.setString(11, emptyToNull(opp.formReq));
-            stmt.setString(12, emptyToNull(opp.techReq));
-            stmt.setString(13, emptyToNull(opp.contactPerson));
-            stmt.setString(14, emptyToNull(opp.company));
+        Map<String, List<Opportunity>> inserted = new LinkedHashMap<>();
+        for (var row : rows) {
+            if (insertedKeys.contains(row.getKey() + "/" + row.getValue().id)) {
+                inserted.computeIfAbsent(row.getKey(), k -> new ArrayList<>()).add(row.getValue());
+            }
+        }
+        return inserted;
+    }
 
-            // Insert into database
-            stmt.executeUpdate();
-            System.out.println("✅ Inserted into database.");
+    /**
+     * Binds one opportunity row, in INSERT_COLUMNS order, starting after the given parameter offset.
+     */
+    private static void bindOpportunity(PreparedStatement stmt, int offset, Opportunity opp, String discordId) throws SQLException {
+        // Basic info
+        stmt.setString(offset + 1, opp.id);
+        stmt.setString(offset + 2, opp.title);
+        stmt.setString(offset + 3, opp.description);
+        stmt.setString(offset + 4, opp.type);
+
+        // Convert deadline to SQL date or set null
+        Date deadline = toSqlDate(opp.deadline);
+        if (deadline != null) {
+            stmt.setDate(offset + 5, deadline);
+        } else {
+            stmt.setNull(offset + 5, Types.DATE);
+        }
+
+        // Associate with user and optional fields
+        stmt.setString(offset + 6, discordId);
+        stmt.setString(offset + 7, emptyToNull(opp.url));
+        stmt.setString(offset + 8, emptyToNull(opp.wage));
+        stmt.setString(offset + 9, emptyToNull(opp.homeOffice));
+        stmt.setString(offset + 10, emptyToNull(opp.benefits));
+        stmt.setString(offset + 11, emptyToNull(opp.formReq));
+        stmt.setString(offset + 12, emptyToNull(opp.techReq));
+        stmt.setString(offset + 13, emptyToNull(opp.contactPerson));
+        stmt.setString(offset + 14, emptyToNull(opp.company));
+    }
+
+    /**
+     * Parses a yyyy-MM-dd deadline; returns null for blank or placeholder values such as "N/A".
+     */
+    static Date toSqlDate(String deadline) {
+        if (deadline == null || deadline.isBlank()) return null;
+        try {
+            return Date.valueOf(deadline.trim());
+        } catch (IllegalArgumentException e) {
+            return null;
         }
     }
 
@@ -107,7 +189,7 @@ public class OpportunityDAO {
      * @param value the string to evaluate
      * @return null if blank or null, else the original string
      */
-    private static String emptyToNull(String value) {
+    static String emptyToNull(String value) {
         return (value == null || value.isBlank()) ? null : value;
     }
 
@@ -0,0 +1,160 @@
+package storage;
+
+import config.DBConnection;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Data Access Object for the 'registration_state' table.
+ * Keeps the onboarding step of users who are in the middle of creating their profile,
+ * so the bot can continue the conversation after a restart.
+ */
+public class RegistrationStateDAO {
+
+    /**
+     * Stored step of one user.
+     *
+     * @param step      name of the registration step
+     * @param updatedAt when the user last moved to this step
+     */
+    public record State(String step, Instant updatedAt) {
+    }
+
+    /**
+     * Loads the most recent states updated after the given time.
+     *
+     * @param since only states newer than this are returned
+     * @param limit maximum number of states
+     * @return map of Discord ID to state, most recent first
+     * @throws Exception if the query fails
+     */
+    public static Map<String, State> loadSince(Instant since, int limit) throws Exception {
+        String sql = """
+            SELECT discord_id, step, updated_at FROM registration_state
+            WHERE updated_at > ?
+            ORDER BY updated_at DESC
+            LIMIT ?
+            """;
+        Map<String, State> states = new LinkedHashMap<>();
+
+        try (Connection conn = DBConnection.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql)) {
+            stmt.setTimestamp(1, Timestamp.from(since));
+            stmt.setInt(2, limit);
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    states.put(rs.getString("discord_id"),
+                            new State(rs.getString("step"), rs.getTimestamp("updated_at").toInstant()));
+                }
+            }
+        }
+        return states;
+    }
+
+    /**
+     * Loads the step of one user.
+     *
+     * @param since states last updated before this are treated as absent
+     * @return the state, or null if the user is not registering
+     * @throws Exception if the query fails
+     */
+    public static State find(String discordId, Instant since) throws Exception {
+        String sql = "SELECT step, updated_at FROM registration_state WHERE discord_id = ? AND updated_at > ?";
+
+        try (Connection conn = DBConnection.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql)) {
+            stmt.setString(1, discordId);
+            stmt.setTimestamp(2, Timestamp.from(since));
+            try (ResultSet rs = stmt.executeQuery()) {
+                if (!rs.next()) return null;
+                return new State(rs.getString("step"), rs.getTimestamp("updated_at").toInstant());
+            }
+        }
+    }
+
+    /**
+     * Moves a user to the next step only if they are still at the expected one.
+     * The check and the update are a single statement, so concurrent callers
+     * (also in other processes) cannot both succeed.
+     *
+     * @param since states last updated before this are treated as absent
+     * @return true if this call made the move
+     * @throws Exception if the update fails
+     */
+    public static boolean compareAndSet(String discordId, String expectedStep, String nextStep,
+                                        Instant since, Instant updatedAt) throws Exception {
+        String sql = """
+            UPDATE registration_state SET step = ?, updated_at = ?
+            WHERE discord_id = ? AND step = ? AND updated_at > ?
+            """;
+
+        try (Connection conn = DBConnection.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql)) {
+            stmt.setString(1, nextStep);
+            stmt.setTimestamp(2, Timestamp.from(updatedAt));
+            stmt.setString(3, discordId);
+            stmt.setString(4, expectedStep);
+            stmt.setTimestamp(5, Timestamp.from(since));
+            return stmt.executeUpdate() == 1;
+        }
+    }
+
+    /**
+     * Inserts or replaces the step of a user.
+     *
+     * @throws Exception if the upsert fails
+     */
+    public static void save(String discordId, String step, Instant updatedAt) throws Exception {
+        String sql = """
+            INSERT INTO registration_state (discord_id, step, updated_at)
+            VALUES (?, ?, ?)
+            ON CONFLICT (discord_id) DO UPDATE
+              SET step = EXCLUDED.step, updated_at = EXCLUDED.updated_at
+            """;
+
+        try (Connection conn = DBConnection.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql)) {
+            stmt.setString(1, discordId);
+            stmt.setString(2, step);
+            stmt.setTimestamp(3, Timestamp.from(updatedAt));
+            stmt.executeUpdate();
+        }
+    }
+
+    /**
+     * Removes the stored step of a user.
+     *
+     * @throws Exception if the delete fails
+     */
+    public static void delete(String discordId) throws Exception {
+        String sql = "DELETE FROM registration_state WHERE discord_id = ?";
+
+        try (Connection conn = DBConnection.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql)) {
+            stmt.setString(1, discordId);
+            stmt.executeUpdate();
+        }
+    }
+
+    /**
+     * Removes states last updated before the given time.
+     *
+     * @return number of removed rows
+     * @throws Exception if the delete fails
+     */
+    public static int deleteOlderThan(Instant cutoff) throws Exception {
+        String sql = "DELETE FROM registration_state WHERE updated_at <= ?";
+
+        try (Connection conn = DBConnection.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql)) {
+            stmt.setTimestamp(1, Timestamp.from(cutoff));
+            return stmt.executeUpdate();
+        }
+    }
+}
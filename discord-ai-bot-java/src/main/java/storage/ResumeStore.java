@@ -0,0 +1,231 @@
+package storage;
+
+import config.BotConfig;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.*;
+import java.nio.file.attribute.FileTime;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.HexFormat;
+import java.util.Set;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Content-addressed store for uploaded resume PDFs.
+ * Each distinct file is kept once, gzip-compressed, under blobs/&lt;first two hex chars&gt;/&lt;sha256&gt;.pdf.gz,
+ * and students point to it through 'student.resume_sha256'. Blobs are written to a temporary file and
+ * renamed into place, so readers never see a partial blob. A blob no student references any more is
+ * deleted once it is older than a short grace period, either right away when its last reference goes
+ * or by the periodic sweep. Storing and deleting the same blob are serialised by a striped lock, so
+ * a blob is never deleted between an upload finding it and refreshing its timestamp.
+ */
+public class ResumeStore {
+
+    private static final Path ROOT = Paths.get(BotConfig.getString("RESUME_STORE_DIR", "resumes"));
+    private static final Path BLOBS = ROOT.resolve("blobs");
+    private static final Path INCOMING = ROOT.resolve("incoming");
+
+    // Fresh blobs are kept for a while even when unreferenced, so an upload in progress is never collected
+    private static final Duration GC_GRACE = Duration.ofMinutes(Math.max(1, BotConfig.getLong("RESUME_GC_GRACE_MINUTES", 10)));
+    private static final long GC_INTERVAL_MINUTES = Math.max(1, BotConfig.getLong("RESUME_GC_INTERVAL_MINUTES", 60));
+
+    // Guards the check-then-act of put and delete on one blob; a stripe is picked by the hash
+    private static final Object[] locks = new Object[64];
+
+    static {
+        for (int i = 0; i < locks.length; i++) locks[i] = new Object();
+    }
+
+    private static ScheduledExecutorService scheduler;
+
+    /**
+     * Schedules the periodic sweep of unreferenced blobs.
+     */
+    public static synchronized void start() {
+        if (scheduler != null) return;
+        scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "resume-gc");
+            t.setDaemon(true);
+            return t;
+        });
+        scheduler.scheduleWithFixedDelay(() -> {
+            try {
+                collectGarbage();
+            } catch (Exception e) {
+                System.out.println("⚠️ Resume GC failed: " + e.getMessage());
+            }
+        }, 1, GC_INTERVAL_MINUTES, TimeUnit.MINUTES);
+    }
+
+    /**
+     * Returns a new, unique file to download an upload into before it is stored.
+     *
+     * @throws IOException if the directory cannot be created
+     */
+    public static Path newIncomingFile() throws IOException {
+        Files.createDirectories(INCOMING);
+        return Files.createTempFile(INCOMING, "upload-", ".pdf");
+    }
+
+    /**
+     * Stores a PDF under its content hash. If the same content is already stored, nothing is written.
+     *
+     * @param pdf the uncompressed PDF file (left in place)
+     * @return SHA-256 hex of the PDF bytes, which is also the blob key
+     * @throws IOException if the blob cannot be written
+     */
+    public static String put(Path pdf) throws IOException {
+        Files.createDirectories(BLOBS);
+        Path temp = Files.createTempFile(BLOBS, "blob-", ".tmp");
+        try {
+            MessageDigest digest = sha256();
+            try (InputStream in = new DigestInputStream(Files.newInputStream(pdf), digest);
+                 OutputStream out = new GZIPOutputStream(Files.newOutputStream(temp), 64 * 1024)) {
+                in.transferTo(out);
+            }
+            String hash = HexFormat.of().formatHex(digest.digest());
+
+            Path target = blobPath(hash);
+            synchronized (lockFor(hash)) {
+                if (Files.exists(target)) {
+                    try {
+                        // Already stored; refresh the timestamp so the GC grace period covers this upload too
+                        Files.setLastModifiedTime(target, FileTime.from(Instant.now()));
+                        return hash;
+                    } catch (NoSuchFileException e) {
+                        // Deleted outside this process in the meantime; store it again below
+                    }
+                }
+
+                Files.createDirectories(target.getParent());
+                try {
+                    Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE);
+                } catch (FileAlreadyExistsException e) {
+                    // Stored concurrently by another upload with the same content
+                }
+            }
+            return hash;
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+
+    /**
+     * Opens a stored resume for reading.
+     *
+     * @param hash the blob key returned by {@link #put(Path)}
+     * @return the decompressed PDF bytes as a stream
+     * @throws IOException if no such blob exists
+     */
+    public static InputStream open(String hash) throws IOException {
+        return new GZIPInputStream(Files.newInputStream(blobPath(hash)), 64 * 1024);
+    }
+
+    /**
+     * Points a student at a stored resume and releases the resume they had before.
+     *
+     * @throws Exception if the student row cannot be updated
+     */
+    public static void assign(String discordId, String hash) throws Exception {
+        String previous = StudentDAO.updateResumeHashByDiscordId(discordId, hash);
+        if (previous != null && !previous.equals(hash)) {
+            release(previous);
+        }
+    }
+
+    /**
+     * Deletes a blob if no student references it any more and it is past its grace period.
+     * Blobs that are still too fresh are left for the periodic sweep.
+     */
+    public static void release(String hash) {
+        try {
+            if (StudentDAO.countResumeReferences(hash) == 0) {
+                deleteBlobIfExpired(hash);
+            }
+        } catch (Exception e) {
+            System.out.println("⚠️ Failed to release resume blob " + hash + ": " + e.getMessage());
+        }
+    }
+
+    /**
+     * Deletes every blob that no student references and that is past its grace period.
+     * Leftover downloads in the incoming directory are removed the same way.
+     *
+     * @return number of files deleted
+     * @throws Exception if the referenced hashes cannot be loaded or the store cannot be listed
+     */
+    public static int collectGarbage() throws Exception {
+        Files.createDirectories(BLOBS);
+        Set<String> referenced = StudentDAO.getReferencedResumeHashes();
+
+        int deleted = 0;
+        try (Stream<Path> files = Files.walk(BLOBS, 2)) {
+            for (Path file : (Iterable<Path>) files.filter(Files::isRegularFile)::iterator) {
+                String name = file.getFileName().toString();
+                if (name.endsWith(".tmp")) {
+                    if (deleteIfExpired(file)) deleted++;
+                } else if (name.endsWith(".pdf.gz")) {
+                    String hash = name.substring(0, name.length() - 7);
+                    if (referenced.contains(hash)) continue;
+                    if (isHash(hash) ? deleteBlobIfExpired(hash) : deleteIfExpired(file)) deleted++;
+                }
+            }
+        }
+        // Downloads left behind by a crash or a failed upload
+        if (Files.isDirectory(INCOMING)) {
+            try (Stream<Path> files = Files.list(INCOMING)) {
+                for (Path file : (Iterable<Path>) files::iterator) {
+                    if (deleteIfExpired(file)) deleted++;
+                }
+            }
+        }
+        if (deleted > 0) System.out.println("🧹 Removed " + deleted + " unreferenced resume files");
+        return deleted;
+    }
+
+    // The timestamp is checked under the blob's lock, so a blob an upload has just refreshed is kept
+    private static boolean deleteBlobIfExpired(String hash) throws IOException {
+        synchronized (lockFor(hash)) {
+            return deleteIfExpired(blobPath(hash));
+        }
+    }
+
+    private static Object lockFor(String hash) {
+        return locks[Math.floorMod(hash.hashCode(), locks.length)];
+    }
+
+    private static boolean deleteIfExpired(Path file) throws IOException {
+        if (!Files.exists(file)) return false;
+        Instant modified = Files.getLastModifiedTime(file).toInstant();
+        if (modified.plus(GC_GRACE).isAfter(Instant.now())) return false;
+        return Files.deleteIfExists(file);
+    }
+
+    private static Path blobPath(String hash) {
+        if (!isHash(hash)) throw new IllegalArgumentException("Not a SHA-256 hash: " + hash);
+        return BLOBS.resolve(hash.substring(0, 2)).resolve(hash + ".pdf.gz");
+    }
+
+    private static boolean isHash(String name) {
+        return name.matches("[0-9a-f]{64}");
+    }
+
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+}
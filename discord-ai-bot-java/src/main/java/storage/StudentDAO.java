@@ -1,12 +1,16 @@
 package storage;
 
+import bot.ai.CvAnalysisCache;
 import config.DBConnection;
+import match.SkillTaxonomy;
 import java.sql.Connection;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.Types;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.Map;
+import java.util.Set;
 import java.sql.SQLException;
 
 /**
@@ -20,6 +24,7 @@ public class StudentDAO {
     /**
      * Inserts a new student record or updates an existing one based on the Discord ID.
      * Only non-null fields in the upsert call will be updated; others are preserved.
+     * When skills or career interest change, the stored skill_mask is re-encoded from the final values.
      *
      * @param fullName        student's full name
      * @param email           student's email
@@ -44,6 +49,7 @@ public class StudentDAO {
                   email           = COALESCE(EXCLUDED.email,           student.email),
                   skills          = COALESCE(EXCLUDED.skills,          student.skills),
                   career_interest = COALESCE(EXCLUDED.career_interest, student.career_interest)
+            RETURNING skills, career_interest
             """;
 
         try (Connection conn = DBConnection.getConnection();
@@ -55,7 +61,28 @@ public class StudentDAO {
             stmt.setObject(4, careerInterest, Types.VARCHAR);
             stmt.setString(5, discordId);
 
-            stmt.executeUpdate();
+            String storedSkills, storedInterest;
+            try (ResultSet rs = stmt.executeQuery()) {
+                if (!rs.next() || (skills == null && careerInterest == null)) return;
+                storedSkills = rs.getString("skills");
+                storedInterest = rs.getString("career_interest");
+            }
+
+            // Only write the mask if the text is still what it was encoded from; if a concurrent
+            // profile write got in between, that writer's own update sets the mask instead
+            String updateSql = """
+                UPDATE student SET skill_mask = ?
+                WHERE discord_id = ?
+                  AND skills IS NOT DISTINCT FROM ?
+                  AND career_interest IS NOT DISTINCT FROM ?
+                """;
+            try (PreparedStatement update = conn.prepareStatement(updateSql)) {
+                update.setLong(1, encodeProfile(storedSkills, storedInterest));
+                update.setString(2, discordId);
+                update.setObject(3, storedSkills, Types.VARCHAR);
+                update.setObject(4, storedInterest, Types.VARCHAR);
+                update.executeUpdate();
+            }
         }
     }
 
@@ -88,26 +115,160 @@ public class StudentDAO {
         }
     }
 
+    /**
+     * Loads the skill masks of every student who has filled in skills or a career interest.
+     * Rows written before the skill_mask column existed are encoded on the fly.
+     * Used to fill the student mask table for push matching.
+     *
+     * @return map of Discord ID to {@link SkillTaxonomy} mask (students without any known skill are left out)
+     * @throws Exception if the database query fails
+     */
+    public static Map<String, Long> getSkillMasks() throws Exception {
+        String sql = """
+            SELECT discord_id, skills, career_interest, skill_mask FROM student
+            WHERE skills IS NOT NULL OR career_interest IS NOT NULL
+            """;
+        Map<String, Long> masks = new HashMap<>();
+
+        try (Connection conn = DBConnection.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql);
+             ResultSet rs = stmt.executeQuery()) {
+            while (rs.next()) {
+                long mask = readMask(rs);
+                if (mask != 0L) masks.put(rs.getString("discord_id"), mask);
+            }
+        }
+        return masks;
+    }
+
+    /**
+     * Loads one student's skill mask.
+     *
+     * @param discordId the user's Discord ID
+     * @return the {@link SkillTaxonomy} mask, or null if the student does not exist
+     * @throws Exception if the database query fails
+     */
+    public static Long getSkillMask(String discordId) throws Exception {
+        String sql = "SELECT skills, career_interest, skill_mask FROM student WHERE discord_id = ?";
+
+        try (Connection conn = DBConnection.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql)) {
+            stmt.setString(1, discordId);
+            try (ResultSet rs = stmt.executeQuery()) {
+                return rs.next() ? readMask(rs) : null;
+            }
+        }
+    }
+
+    private static long readMask(ResultSet rs) throws SQLException {
+        long mask = rs.getLong("skill_mask");
+        if (!rs.wasNull()) return mask;
+        return encodeProfile(rs.getString("skills"), rs.getString("career_interest"));
+    }
+
+    private static long encodeProfile(String skills, String careerInterest) {
+        return SkillTaxonomy.encode((skills == null ? "" : skills) + ", " + (careerInterest == null ? "" : careerInterest));
+    }
+
     /**
      * Deletes a student's profile from the database using their Discord ID.
+     * The stored resume and its cached analysis are removed once no other profile references them.
      *
      * @param discordId the user's Discord ID
      * @return true if a row was deleted, false if no match was found
      */
     public static boolean deleteProfileByDiscordId(String discordId) {
-        String sql = "DELETE FROM student WHERE discord_id = ?";
+        String sql = "DELETE FROM student WHERE discord_id = ? RETURNING resume_sha256";
         try (Connection conn = DBConnection.getConnection();
              PreparedStatement stmt = conn.prepareStatement(sql)) {
 
             stmt.setString(1, discordId);
-            int rows = stmt.executeUpdate();
-            return rows > 0;
+            try (ResultSet rs = stmt.executeQuery()) {
+                if (!rs.next()) return false;
+                String resumeHash = rs.getString("resume_sha256");
+                if (resumeHash != null) {
+                    ResumeStore.release(resumeHash);
+                    CvAnalysisCache.forget(resumeHash);
+                }
+                return true;
+            }
         } catch (Exception e) {
             e.printStackTrace();
             return false;
         }
     }
 
+    /**
+     * Points a student's profile at a stored resume, creating the row if needed.
+     *
+     * @param discordId  the user's Discord ID
+     * @param resumeHash content hash of the resume in the {@link ResumeStore}
+     * @return the hash the profile pointed at before, or null if it had none
+     * @throws Exception if the update fails
+     */
+    public static String updateResumeHashByDiscordId(String discordId, String resumeHash) throws Exception {
+        String sql = """
+            WITH previous AS (SELECT resume_sha256 FROM student WHERE discord_id = ?)
+            INSERT INTO student (discord_id, resume_sha256)
+            VALUES (?, ?)
+            ON CONFLICT (discord_id) DO UPDATE
+              SET resume_sha256 = EXCLUDED.resume_sha256
+            RETURNING (SELECT resume_sha256 FROM previous)
+            """;
+
+        try (Connection conn = DBConnection.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql)) {
+
+            stmt.setString(1, discordId);
+            stmt.setString(2, discordId);
+            stmt.setString(3, resumeHash);
+            try (ResultSet rs = stmt.executeQuery()) {
+                return rs.next() ? rs.getString(1) : null;
+            }
+        }
+    }
+
+    /**
+     * Counts the profiles that point at a stored resume.
+     *
+     * @param resumeHash content hash of the resume
+     * @return number of referencing profiles
+     * @throws Exception if the query fails
+     */
+    public static int countResumeReferences(String resumeHash) throws Exception {
+        String sql = "SELECT COUNT(*) FROM student WHERE resume_sha256 = ?";
+
+        try (Connection conn = DBConnection.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql)) {
+
+            stmt.setString(1, resumeHash);
+            try (ResultSet rs = stmt.executeQuery()) {
+                rs.next();
+                return rs.getInt(1);
+            }
+        }
+    }
+
+    /**
+     * Loads every resume hash that is referenced by at least one profile.
+     *
+     * @return set of referenced content hashes
+     * @throws Exception if the query fails
+     */
+    public static Set<String> getReferencedResumeHashes() throws Exception {
+        String sql = "SELECT DISTINCT resume_sha256 FROM student WHERE resume_sha256 IS NOT NULL";
+        Set<String> hashes = new HashSet<>();
+
+        try (Connection conn = DBConnection.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql);
+             ResultSet rs = stmt.executeQuery()) {
+            while (rs.next()) {
+                hashes.add(rs.getString(1));
+            }
+        }
+        return hashes;
+    }
+
     /**
      * Updates the `cv_text` column for a student given their Discord ID.
      *
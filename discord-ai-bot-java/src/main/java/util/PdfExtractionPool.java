@@ -0,0 +1,83 @@
+package util;
+
+import config.BotConfig;
+
+import java.io.File;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Runs PDF text extraction on a small dedicated pool, away from JDA and download threads.
+ * The pool has a fixed number of workers and a bounded queue: when both are full, new jobs are
+ * rejected immediately instead of piling up in memory, and every job has a time limit.
+ */
+public class PdfExtractionPool {
+
+    private static final int WORKERS = Math.max(1, BotConfig.getInt("PDF_WORKERS", 2));
+    private static final int QUEUE_CAPACITY = Math.max(1, BotConfig.getInt("PDF_QUEUE_CAPACITY", 8));
+    private static final long JOB_TIMEOUT_SECONDS = Math.max(1, BotConfig.getLong("PDF_JOB_TIMEOUT_SECONDS", 60));
+
+    private static final ThreadPoolExecutor pool = createPool();
+
+    private static ThreadPoolExecutor createPool() {
+        AtomicInteger counter = new AtomicInteger();
+        return new ThreadPoolExecutor(WORKERS, WORKERS, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(QUEUE_CAPACITY),
+                r -> {
+                    Thread t = new Thread(r, "pdf-extract-" + counter.incrementAndGet());
+                    t.setDaemon(true);
+                    return t;
+                },
+                new ThreadPoolExecutor.AbortPolicy());
+    }
+
+    /**
+     * Queues text extraction of a PDF file.
+     *
+     * @param file the PDF to read
+     * @return a future with the extracted text. It fails with RejectedExecutionException when the pool is full,
+     *         with TimeoutException when the job exceeds its time limit, or with the extraction error
+     */
+    public static CompletableFuture<String> extractText(File file) {
+        CompletableFuture<String> result = new CompletableFuture<>();
+        Future<?> job;
+        try {
+            job = pool.submit(() -> {
+                if (result.isDone()) return; // Timed out while still queued
+                try {
+                    result.complete(PdfUtils.extractText(file));
+                } catch (Throwable t) {
+                    result.completeExceptionally(t);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            result.completeExceptionally(new RejectedExecutionException(
+                    "Too many CVs are being processed right now, please try again in a minute."));
+            return result;
+        }
+
+        return result.orTimeout(JOB_TIMEOUT_SECONDS, TimeUnit.SECONDS)
+                .whenComplete((text, ex) -> {
+                    if (ex instanceof TimeoutException) {
+                        // Interrupts the worker; PdfUtils stops at the next page, so a slow page still holds the slot
+                        job.cancel(true);
+                        System.out.println("⏱️ PDF extraction of " + file.getName() + " timed out");
+                    }
+                });
+    }
+
+    /**
+     * @return one-line summary of the pool load
+     */
+    public static String getStats() {
+        return "pdf-extract: active=" + pool.getActiveCount() + "/" + WORKERS
+                + " queued=" + pool.getQueue().size() + "/" + QUEUE_CAPACITY
+                + " completed=" + pool.getCompletedTaskCount();
+    }
+}
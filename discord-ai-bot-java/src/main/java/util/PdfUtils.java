@@ -1,31 +1,175 @@
 package util;
 
+import config.BotConfig;
+import org.apache.pdfbox.io.MemoryUsageSetting;
 import org.apache.pdfbox.pdmodel.PDDocument;
 import org.apache.pdfbox.text.PDFTextStripper;
 
 import java.io.File;
 import java.io.IOException;
+import java.io.InterruptedIOException;
 
 /**
  * Utility class for handling PDF-related operations using Apache PDFBox.
  * Provides functionality to extract plain text from PDF documents.
+ * Documents are loaded with a small in-heap buffer that spills into a size-capped scratch file,
+ * and oversized files or page counts are refused or cut off, so large scanned CVs stay cheap.
+ * Text is read page by page and extraction stops once the CV text budget is reached, or at the
+ * next page boundary once the thread is interrupted (PDFBox itself ignores interrupts).
  */
 public class PdfUtils {
 
+    // Largest PDF accepted for extraction
+    public static final long MAX_FILE_BYTES = BotConfig.getLong("PDF_MAX_FILE_BYTES", 20L * 1024 * 1024);
+
+    // Only the first pages are read; a CV rarely needs more
+    private static final int MAX_PAGES = Math.max(1, BotConfig.getInt("PDF_MAX_PAGES", 20));
+
+    // Heap used per document before PDFBox spills to the scratch file, and the cap on that file
+    private static final long MAX_MAIN_MEMORY_BYTES = BotConfig.getLong("PDF_MAX_MAIN_MEMORY_BYTES", 8L * 1024 * 1024);
+    private static final long MAX_SCRATCH_BYTES = BotConfig.getLong("PDF_MAX_SCRATCH_BYTES", 128L * 1024 * 1024);
+    private static final String SCRATCH_DIR = BotConfig.getString("PDF_SCRATCH_DIR", System.getProperty("java.io.tmpdir"));
+
+    // Extraction stops once the CV text reaches either budget
+    private static final int MAX_TEXT_CHARS = Math.max(1000, BotConfig.getInt("CV_TEXT_MAX_CHARS", 20000));
+    private static final int MAX_TEXT_TOKENS = Math.max(250, BotConfig.getInt("CV_TEXT_MAX_TOKENS", 5000));
+
+    /**
+     * Result of a page-by-page extraction.
+     *
+     * @param text           normalised text of the pages read
+     * @param pagesProcessed number of pages read
+     * @param totalPages     number of pages in the document
+     * @param truncated      true if extraction stopped before the end of the document
+     * @param millis         time spent loading and reading the document
+     */
+    public record Extraction(String text, int pagesProcessed, int totalPages, boolean truncated, long millis) {
+    }
+
     /**
      * Extracts plain text content from a given PDF file using Apache PDFBox.
      *
      * @param file the PDF file to extract text from
      * @return the extracted text as a string
-     * @throws IOException if the file cannot be read or parsed
+     * @throws IOException if the file is too large, cannot be read or parsed
      */
     public static String extractText(File file) throws IOException {
-        // Load the PDF document from the given file
-        try (PDDocument document = PDDocument.load(file)) {
-            // Create a text stripper to extract text from the document
+        return extract(file, MAX_TEXT_CHARS, MAX_TEXT_TOKENS).text();
+    }
+
+    /**
+     * Extracts text one page at a time, normalising whitespace as it goes, and stops as soon as
+     * the character or token budget is reached, so long documents are never read in full.
+     *
+     * @param file      the PDF file to extract text from
+     * @param maxChars  maximum length of the returned text
+     * @param maxTokens maximum estimated tokens of the returned text
+     * @return the text plus pages read and time spent
+     * @throws IOException if the file is too large, cannot be read or parsed,
+     *                     or an {@link InterruptedIOException} if the thread was interrupted
+     */
+    public static Extraction extract(File file, int maxChars, int maxTokens) throws IOException {
+        if (file.length() > MAX_FILE_BYTES) {
+            throw new IOException("PDF is larger than " + (MAX_FILE_BYTES / (1024 * 1024)) + " MB");
+        }
+        long start = System.nanoTime();
+
+        // Load the PDF document from the given file with bounded memory
+        try (PDDocument document = PDDocument.load(file, memoryUsage())) {
+            int totalPages = document.getNumberOfPages();
+            int lastPage = Math.min(totalPages, MAX_PAGES);
+
+            // Create a text stripper and reuse it for every page
             PDFTextStripper stripper = new PDFTextStripper();
-            // Return the full extracted text
-            return stripper.getText(document);
+            StringBuilder text = new StringBuilder();
+            int tokens = 0;
+            int pages = 0;
+            boolean budgetReached = false;
+
+            while (pages < lastPage && !budgetReached) {
+                if (Thread.interrupted()) {
+                    throw new InterruptedIOException("PDF extraction of " + file.getName() + " was cancelled");
+                }
+                pages++;
+                stripper.setStartPage(pages);
+                stripper.setEndPage(pages);
+
+                int pageStart = text.length();
+                appendNormalized(text, stripper.getText(document));
+                tokens += TokenEstimator.estimate(text.substring(pageStart));
+
+                if (text.length() >= maxChars || tokens >= maxTokens) {
+                    budgetReached = true;
+                    int limit = Math.min(maxChars, text.length());
+                    if (tokens > maxTokens) {
+                        // Scale the cut to the share of the page that still fits the token budget
+                        int pageTokens = TokenEstimator.estimate(text.substring(pageStart));
+                        int allowed = maxTokens - (tokens - pageTokens);
+                        limit = Math.min(limit, pageStart + (int) ((long) (text.length() - pageStart) * allowed / pageTokens));
+                    }
+                    cutAtWord(text, limit);
+                }
+            }
+
+            long millis = (System.nanoTime() - start) / 1_000_000;
+            boolean truncated = budgetReached || pages < totalPages;
+            System.out.println("📄 Extracted " + text.length() + " chars from " + pages + "/" + totalPages
+                    + " pages of " + file.getName() + " in " + millis + " ms" + (truncated ? " (truncated)" : ""));
+            return new Extraction(text.toString().strip(), pages, totalPages, truncated, millis);
+        }
+    }
+
+    /**
+     * Appends page text with runs of spaces collapsed, lines trimmed and at most one blank line in a row.
+     */
+    static void appendNormalized(StringBuilder out, String pageText) {
+        if (pageText == null) return;
+        int newlines = 0;
+        boolean pendingSpace = false;
+
+        for (int i = 0; i < pageText.length(); i++) {
+            char c = pageText.charAt(i);
+            if (c == '\n') {
+                newlines++;
+                pendingSpace = false;
+            } else if (c == '\r') {
+                // Ignored, '\n' follows
+            } else if (Character.isWhitespace(c) || c == '\u00A0') {
+                pendingSpace = true;
+            } else {
+                if (newlines > 0 && out.length() > 0) {
+                    out.append(newlines >= 2 ? "\n\n" : "\n");
+                } else if (pendingSpace && out.length() > 0 && out.charAt(out.length() - 1) != '\n') {
+                    out.append(' ');
+                }
+                out.append(c);
+                newlines = 0;
+                pendingSpace = false;
+            }
         }
+        if (newlines > 0 && out.length() > 0) out.append('\n'); // Keep pages apart
+    }
+
+    /**
+     * Shortens the text to at most the limit, cutting at the last whitespace if one is reasonably close.
+     */
+    private static void cutAtWord(StringBuilder text, int limit) {
+        if (text.length() <= limit) return;
+        int cut = limit;
+        for (int i = limit; i > limit * 9 / 10; i--) {
+            if (Character.isWhitespace(text.charAt(i - 1))) {
+                cut = i - 1;
+                break;
+            }
+        }
+        text.setLength(cut);
+    }
+
+    /**
+     * Memory settings for loading one document: a capped heap buffer backed by a capped scratch file.
+     */
+    static MemoryUsageSetting memoryUsage() {
+        return MemoryUsageSetting.setupMixed(MAX_MAIN_MEMORY_BYTES, MAX_SCRATCH_BYTES)
+                .setTempDir(new File(SCRATCH_DIR));
     }
 }
@@ -0,0 +1,73 @@
+package util;
+
+/**
+ * Token-bucket rate limiter.
+ * The bucket holds up to {@code capacity} permits and refills continuously at
+ * {@code capacity} permits per period, so it allows short bursts while enforcing
+ * an average rate such as "60 requests per minute".
+ */
+public class TokenBucket {
+
+    private final long capacity;
+    private final double refillPerNano;
+    private double available;
+    private long lastRefill;
+
+    /**
+     * @param capacity     permits per period (also the maximum burst)
+     * @param periodMillis length of the period in milliseconds
+     */
+    public TokenBucket(long capacity, long periodMillis) {
+        if (capacity <= 0 || periodMillis <= 0) throw new IllegalArgumentException("Capacity and period must be positive");
+        this.capacity = capacity;
+        this.refillPerNano = (double) capacity / (periodMillis * 1_000_000.0);
+        this.available = capacity;
+        this.lastRefill = System.nanoTime();
+    }
+
+    /**
+     * Takes the given number of permits, waiting until enough have refilled.
+     * Requests larger than the capacity are capped to the capacity so they cannot block forever.
+     *
+     * @param permits number of permits to take
+     * @throws InterruptedException if interrupted while waiting
+     */
+    public synchronized void acquire(long permits) throws InterruptedException {
+        double needed = Math.min(Math.max(permits, 0), capacity);
+        refill();
+        while (available < needed) {
+            long waitNanos = (long) Math.ceil((needed - available) / refillPerNano);
+            long waitMillis = Math.max(1, waitNanos / 1_000_000);
+            wait(waitMillis);
+            refill();
+        }
+        available -= needed;
+    }
+
+    /**
+     * Takes the permits only if they are available right now.
+     *
+     * @return true if the permits were taken
+     */
+    public synchronized boolean tryAcquire(long permits) {
+        double needed = Math.min(Math.max(permits, 0), capacity);
+        refill();
+        if (available < needed) return false;
+        available -= needed;
+        return true;
+    }
+
+    /**
+     * @return permits currently available (rounded down)
+     */
+    public synchronized long available() {
+        refill();
+        return (long) available;
+    }
+
+    private void refill() {
+        long now = System.nanoTime();
+        available = Math.min(capacity, available + (now - lastRefill) * refillPerNano);
+        lastRefill = now;
+    }
+}
@@ -0,0 +1,31 @@
+package util;
+
+/**
+ * Cheap local estimate of how many model tokens a text will use.
+ * English text averages about four characters per token; words that are long or
+ * contain digits/punctuation tend to split into more tokens, so the estimate takes
+ * the larger of the character-based and word-based counts. Good enough for budgets
+ * and rate limits, not for exact billing.
+ */
+public class TokenEstimator {
+
+    /**
+     * @param text any text, may be null
+     * @return estimated number of tokens (0 for empty text)
+     */
+    public static int estimate(String text) {
+        if (text == null || text.isEmpty()) return 0;
+
+        int words = 0;
+        boolean inWord = false;
+        for (int i = 0; i < text.length(); i++) {
+            boolean whitespace = Character.isWhitespace(text.charAt(i));
+            if (!whitespace && !inWord) words++;
+            inWord = !whitespace;
+        }
+
+        int byChars = (text.length() + 3) / 4;
+        int byWords = (int) Math.ceil(words * 1.3);
+        return Math.max(byChars, byWords);
+    }
+}
@@ -0,0 +1,209 @@
+package util;
+
+import java.time.Duration;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.ToLongFunction;
+
+/**
+ * Small in-process cache with least-recently-used eviction and time-to-live expiry.
+ * The cache is bounded both by number of entries and by an estimated size in bytes.
+ * Concurrent loads of the same missing key are coalesced, so only one caller runs the loader
+ * while the others wait for its result (single-flight). Failed loads are not cached.
+ *
+ * @param <K> key type
+ * @param <V> value type
+ */
+public class TtlCache<K, V> {
+
+    /**
+     * Computes a value on a cache miss.
+     */
+    @FunctionalInterface
+    public interface Loader<V> {
+        V load() throws Exception;
+    }
+
+    /**
+     * Snapshot of cache counters.
+     */
+    public record Stats(String name, long hits, long misses, long coalesced, long loads, long loadFailures,
+                        long evictions, long expirations, int entries, long bytes) {
+
+        public double hitRate() {
+            long requests = hits + misses;
+            return requests == 0 ? 0.0 : (double) hits / requests;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("%s: entries=%d bytes=%d hits=%d misses=%d hitRate=%.1f%% coalesced=%d loads=%d failures=%d evictions=%d expirations=%d",
+                    name, entries, bytes, hits, misses, hitRate() * 100, coalesced, loads, loadFailures, evictions, expirations);
+        }
+    }
+
+    private record Entry<V>(V value, long weight, long expiresAtNanos) {
+    }
+
+    private final String name;
+    private final int maxEntries;
+    private final long maxBytes;
+    private final long ttlNanos;
+    private final ToLongFunction<V> weigher;
+
+    // Access-ordered map: iteration starts at the least recently used entry. Guarded by "this".
+    private final LinkedHashMap<K, Entry<V>> entries = new LinkedHashMap<>(16, 0.75f, true);
+    private long totalBytes;
+
+    // Loads currently running, shared by all callers asking for the same key
+    private final Map<K, CompletableFuture<V>> inFlight = new ConcurrentHashMap<>();
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder coalesced = new LongAdder();
+    private final LongAdder loads = new LongAdder();
+    private final LongAdder loadFailures = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+    private final LongAdder expirations = new LongAdder();
+
+    /**
+     * @param name       name used in stats output
+     * @param maxEntries maximum number of cached entries
+     * @param maxBytes   maximum total estimated size of cached values
+     * @param ttl        how long an entry stays valid after it was stored
+     * @param weigher    estimates the size of a value in bytes
+     */
+    public TtlCache(String name, int maxEntries, long maxBytes, Duration ttl, ToLongFunction<V> weigher) {
+        if (maxEntries <= 0 || maxBytes <= 0 || ttl.isNegative() || ttl.isZero()) {
+            throw new IllegalArgumentException("Cache limits and TTL must be positive");
+        }
+        this.name = name;
+        this.maxEntries = maxEntries;
+        this.maxBytes = maxBytes;
+        this.ttlNanos = ttl.toNanos();
+        this.weigher = weigher;
+    }
+
+    /**
+     * Returns the cached value for the key, loading it on a miss.
+     * If another thread is already loading the same key, waits for that load instead of starting a new one.
+     *
+     * @param key    the cache key
+     * @param loader computes the value when it is not cached
+     * @return the cached or freshly loaded value
+     * @throws Exception whatever the loader threw
+     */
+    public V get(K key, Loader<V> loader) throws Exception {
+        V cached = getIfPresent(key);
+        if (cached != null) return cached;
+
+        CompletableFuture<V> mine = new CompletableFuture<>();
+        CompletableFuture<V> running = inFlight.putIfAbsent(key, mine);
+        if (running != null) {
+            coalesced.increment();
+            return await(running);
+        }
+
+        try {
+            // Another caller may have finished loading between the lookup and taking ownership
+            V value = peek(key);
+            if (value == null) {
+                loads.increment();
+                value = loader.load();
+                if (value != null) put(key, value);
+            }
+            mine.complete(value);
+            return value;
+        } catch (Throwable t) {
+            loadFailures.increment();
+            mine.completeExceptionally(t);
+            throw t;
+        } finally {
+            inFlight.remove(key, mine);
+        }
+    }
+
+    /**
+     * Returns the value if it is cached and not expired, counting a hit or miss.
+     */
+    public V getIfPresent(K key) {
+        V value = peek(key);
+        if (value != null) {
+            hits.increment();
+        } else {
+            misses.increment();
+        }
+        return value;
+    }
+
+    /**
+     * Looks up a value without touching the hit/miss counters.
+     */
+    private synchronized V peek(K key) {
+        Entry<V> entry = entries.get(key);
+        if (entry == null) return null;
+        if (System.nanoTime() - entry.expiresAtNanos() >= 0) {
+            entries.remove(key);
+            totalBytes -= entry.weight();
+            expirations.increment();
+            return null;
+        }
+        return entry.value();
+    }
+
+    /**
+     * Stores a value, evicting least recently used entries until both limits are respected.
+     */
+    public synchronized void put(K key, V value) {
+        long weight = Math.max(1, weigher.applyAsLong(value));
+        if (weight > maxBytes) {
+            // Would evict everything else; not worth caching, but the old value is stale now
+            invalidate(key);
+            return;
+        }
+
+        Entry<V> previous = entries.put(key, new Entry<>(value, weight, System.nanoTime() + ttlNanos));
+        if (previous != null) totalBytes -= previous.weight();
+        totalBytes += weight;
+
+        Iterator<Map.Entry<K, Entry<V>>> it = entries.entrySet().iterator();
+        while ((entries.size() > maxEntries || totalBytes > maxBytes) && it.hasNext()) {
+            Map.Entry<K, Entry<V>> eldest = it.next();
+            if (eldest.getKey().equals(key)) continue;
+            it.remove();
+            totalBytes -= eldest.getValue().weight();
+            evictions.increment();
+        }
+    }
+
+    public synchronized void invalidate(K key) {
+        Entry<V> removed = entries.remove(key);
+        if (removed != null) totalBytes -= removed.weight();
+    }
+
+    public synchronized void invalidateAll() {
+        entries.clear();
+        totalBytes = 0;
+    }
+
+    public synchronized Stats stats() {
+        return new Stats(name, hits.sum(), misses.sum(), coalesced.sum(), loads.sum(), loadFailures.sum(),
+                evictions.sum(), expirations.sum(), entries.size(), totalBytes);
+    }
+
+    private static <V> V await(CompletableFuture<V> future) throws Exception {
+        try {
+            return future.get();
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof Exception ex) throw ex;
+            if (cause instanceof Error err) throw err;
+            throw e;
+        }
+    }
+}
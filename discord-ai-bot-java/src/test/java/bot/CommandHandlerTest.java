@@ -0,0 +1,25 @@
+package bot;
+
+import match.SkillTaxonomy;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CommandHandlerTest {
+
+    @Test
+    void positionMenuValuesAreTaxonomyEntries() {
+        CommandHandler.POSITION_OPTIONS.keySet().forEach(value ->
+                assertEquals(List.of(value), SkillTaxonomy.names(SkillTaxonomy.encode(value)), value));
+    }
+
+    @Test
+    void positionMenuLabelsMeanTheirStoredValues() {
+        CommandHandler.POSITION_OPTIONS.forEach((value, label) ->
+                assertEquals(SkillTaxonomy.encode(value), SkillTaxonomy.encode(label), label));
+        assertNotEquals(SkillTaxonomy.encode("data_science"),
+                SkillTaxonomy.encode(CommandHandler.POSITION_OPTIONS.get("data")));
+    }
+}
@@ -0,0 +1,31 @@
+package bot;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ResultPagerTest {
+
+    @Test
+    void acceptsHttpAndHttpsLinks() {
+        assertTrue(ResultPager.isLinkable("https://example.com/jobs/42"));
+        assertTrue(ResultPager.isLinkable("HTTP://example.com"));
+    }
+
+    @Test
+    void rejectsOtherSchemesAndBrokenUrls() {
+        assertFalse(ResultPager.isLinkable(null));
+        assertFalse(ResultPager.isLinkable(" "));
+        assertFalse(ResultPager.isLinkable("mailto:hr@example.com"));
+        assertFalse(ResultPager.isLinkable("javascript:alert(1)"));
+        assertFalse(ResultPager.isLinkable("/relative/path"));
+        assertFalse(ResultPager.isLinkable("https://exa mple.com"));
+    }
+
+    @Test
+    void rejectsUrlsLongerThanDiscordAllows() {
+        String base = "https://example.com/";
+        assertTrue(ResultPager.isLinkable(base + "a".repeat(512 - base.length())));
+        assertFalse(ResultPager.isLinkable(base + "a".repeat(513 - base.length())));
+    }
+}
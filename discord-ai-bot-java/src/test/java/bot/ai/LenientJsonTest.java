@@ -0,0 +1,80 @@
+package bot.ai;
+
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParseException;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LenientJsonTest {
+
+    @Test
+    void parsesCleanObject() {
+        JsonObject json = LenientJson.parseObject("{\"rating\": 7, \"feedback\": \"ok\"}");
+        assertEquals(7, json.get("rating").getAsInt());
+        assertEquals("ok", json.get("feedback").getAsString());
+    }
+
+    @Test
+    void extractsObjectFromFencedBlock() {
+        JsonObject json = LenientJson.parseObject("Here you go:\n```json\n{\"name\": \"Ana\"}\n```\nAnything else?");
+        assertEquals("Ana", json.get("name").getAsString());
+    }
+
+    @Test
+    void ignoresTextAroundTheObject() {
+        JsonObject json = LenientJson.parseObject("Sure! {\"a\": {\"b\": [1, 2]}} Hope this helps {\"c\": 3}");
+        assertEquals(2, json.getAsJsonObject("a").getAsJsonArray("b").size());
+        assertFalse(json.has("c"));
+    }
+
+    @Test
+    void bracesInsideStringsDoNotCloseTheObject() {
+        JsonObject json = LenientJson.parseObject("{\"text\": \"use } and ] freely\", \"n\": 1}");
+        assertEquals("use } and ] freely", json.get("text").getAsString());
+        assertEquals(1, json.get("n").getAsInt());
+    }
+
+    @Test
+    void closesTruncatedObjectAndArray() {
+        JsonObject json = LenientJson.parseObject("{\"skills\": [\"java\", \"sql\"");
+        assertEquals(2, json.getAsJsonArray("skills").size());
+
+        json = LenientJson.parseObject("{\"name\": \"Ana\", \"nested\": {\"x\": 1,");
+        assertEquals("Ana", json.get("name").getAsString());
+        assertEquals(1, json.getAsJsonObject("nested").get("x").getAsInt());
+    }
+
+    @Test
+    void closesUnterminatedString() {
+        JsonObject json = LenientJson.parseObject("{\"name\": \"Ana\", \"feedback\": \"Strong backgro");
+        assertEquals("Ana", json.get("name").getAsString());
+        assertEquals("Strong backgro", json.get("feedback").getAsString());
+    }
+
+    @Test
+    void dropsDanglingEscapeInUnterminatedString() {
+        JsonObject json = LenientJson.parseObject("{\"feedback\": \"line\\");
+        assertEquals("line", json.get("feedback").getAsString());
+    }
+
+    @Test
+    void danglingKeyBecomesNull() {
+        JsonObject json = LenientJson.parseObject("{\"name\": \"Ana\", \"email\":");
+        assertEquals("Ana", json.get("name").getAsString());
+        assertTrue(json.get("email").isJsonNull());
+    }
+
+    @Test
+    void dropsIncompleteTrailingKey() {
+        JsonObject json = LenientJson.parseObject("{\"name\": \"Ana\", \"ema");
+        assertEquals("Ana", json.get("name").getAsString());
+        assertEquals(1, json.size());
+    }
+
+    @Test
+    void rejectsAnswersWithoutObject() {
+        assertThrows(JsonParseException.class, () -> LenientJson.parseObject("I cannot help with that."));
+        assertThrows(JsonParseException.class, () -> LenientJson.parseObject(null));
+    }
+}
@@ -0,0 +1,33 @@
+package bot.api;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.StringReader;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class OpportunityJsonReaderTest {
+
+    @Test
+    void countsEntriesWithoutIdButDoesNotReturnThem() throws Exception {
+        OpportunityJsonReader.Page page = OpportunityJsonReader.read(new StringReader("""
+                {"total": 3, "opportunityPreviewDtos": [
+                  {"opportunityId": "1", "opportunityName": "Java developer"},
+                  {"opportunityName": "No ID"},
+                  null
+                ]}
+                """));
+
+        assertTrue(page.hasList());
+        assertEquals(3, page.entries());
+        assertEquals(1, page.opportunities().size());
+        assertEquals("Java developer", page.opportunities().get(0).title);
+    }
+
+    @Test
+    void reportsMissingList() throws Exception {
+        OpportunityJsonReader.Page page = OpportunityJsonReader.read(new StringReader("{\"items\": []}"));
+        assertFalse(page.hasList());
+        assertEquals(0, page.entries());
+    }
+}
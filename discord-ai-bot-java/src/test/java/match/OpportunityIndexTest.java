@@ -0,0 +1,90 @@
+package match;
+
+import bot.api.OpportunityClient.Opportunity;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class OpportunityIndexTest {
+
+    private static Opportunity opp(String id, String title, String techReq, String description) {
+        return new Opportunity(id, title, "ACME", "Full-time", "2030-01-01", description, "https://example.com/" + id,
+                "", "", "", "", techReq, "");
+    }
+
+    private static List<String> ids(List<TopK.Scored<Opportunity>> results) {
+        return results.stream().map(s -> s.item().id).toList();
+    }
+
+    @Test
+    void titleMatchOutranksDescriptionMatch() {
+        OpportunityIndex index = new OpportunityIndex();
+        index.addAll(List.of(
+                opp("1", "Office assistant", "", "Some java exposure is a plus"),
+                opp("2", "Java developer", "", "Backend services"),
+                opp("3", "Designer", "Figma", "Posters")));
+
+        assertEquals(List.of("2", "1"), ids(index.search("java", 10)));
+    }
+
+    @Test
+    void rareTermsWeighMoreThanCommonOnes() {
+        OpportunityIndex index = new OpportunityIndex();
+        index.addAll(List.of(
+                opp("1", "Developer", "python", "Team work"),
+                opp("2", "Developer", "kotlin", "Team work"),
+                opp("3", "Developer", "python", "Team work")));
+
+        // "developer" is in every document, "kotlin" in only one
+        assertEquals("2", ids(index.search("developer kotlin", 10)).get(0));
+    }
+
+    @Test
+    void replacingAndRemovingUpdateResults() {
+        OpportunityIndex index = new OpportunityIndex();
+        index.add(opp("1", "Java developer", "", ""));
+        index.add(opp("1", "Python developer", "", ""));
+
+        assertEquals(1, index.size());
+        assertTrue(index.search("java", 10).isEmpty());
+        assertEquals(List.of("1"), ids(index.search("python", 10)));
+
+        index.removeAll(Set.of("1"));
+        assertEquals(0, index.size());
+        assertTrue(index.search("python", 10).isEmpty());
+    }
+
+    @Test
+    void searchIsLimitedToK() {
+        OpportunityIndex index = new OpportunityIndex();
+        List<Opportunity> opportunities = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            opportunities.add(opp(String.valueOf(i), "Java developer " + i, "", ""));
+        }
+        index.addAll(opportunities);
+
+        assertEquals(5, index.search("java", 5).size());
+        assertTrue(index.search("", 5).isEmpty());
+        assertTrue(index.search("java", 0).isEmpty());
+    }
+
+    @Test
+    void compactionKeepsLiveDocumentsSearchable() {
+        OpportunityIndex index = new OpportunityIndex();
+        List<Opportunity> opportunities = new ArrayList<>();
+        List<String> removed = new ArrayList<>();
+        for (int i = 0; i < 200; i++) {
+            opportunities.add(opp(String.valueOf(i), "Java developer", "", ""));
+            if (i >= 10) removed.add(String.valueOf(i));
+        }
+        index.addAll(opportunities);
+        index.removeAll(removed);
+
+        assertEquals(10, index.size());
+        assertEquals(10, index.search("java", 50).size());
+    }
+}
@@ -0,0 +1,30 @@
+package match;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RelevanceScorerTest {
+
+    @Test
+    void homeOfficeBonusForYesAndPartialValues() {
+        assertTrue(RelevanceScorer.offersHomeOffice("Yes"));
+        assertTrue(RelevanceScorer.offersHomeOffice("Hybrid"));
+        assertTrue(RelevanceScorer.offersHomeOffice("Partially"));
+        assertTrue(RelevanceScorer.offersHomeOffice("2 days a week"));
+        assertTrue(RelevanceScorer.offersHomeOffice("50%"));
+        assertTrue(RelevanceScorer.offersHomeOffice("Ano"));
+    }
+
+    @Test
+    void noHomeOfficeBonusForNegativeOrUnknownValues() {
+        assertFalse(RelevanceScorer.offersHomeOffice(null));
+        assertFalse(RelevanceScorer.offersHomeOffice(""));
+        assertFalse(RelevanceScorer.offersHomeOffice("No"));
+        assertFalse(RelevanceScorer.offersHomeOffice("None"));
+        assertFalse(RelevanceScorer.offersHomeOffice("0%"));
+        assertFalse(RelevanceScorer.offersHomeOffice("N/A"));
+        assertFalse(RelevanceScorer.offersHomeOffice("not possible"));
+        assertFalse(RelevanceScorer.offersHomeOffice("On site"));
+    }
+}
@@ -0,0 +1,73 @@
+package match;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SkillTaxonomyTest {
+
+    private static List<String> names(String text) {
+        return SkillTaxonomy.names(SkillTaxonomy.encode(text));
+    }
+
+    @Test
+    void synonymsMapToCanonicalEntries() {
+        assertEquals(List.of("spring"), names("Spring Boot"));
+        assertEquals(List.of("csharp"), names("C#"));
+        assertEquals(List.of("cpp"), names("C++"));
+        assertEquals(List.of("javascript"), names("JS"));
+        assertEquals(List.of("ml"), names("Machine Learning"));
+    }
+
+    @Test
+    void findsPhrasesInsideFreeText() {
+        assertEquals(List.of("java", "sql", "docker", "backend"),
+                names("We build back end services in Java with PostgreSQL, deployed in Docker."));
+    }
+
+    @Test
+    void multiWordPhraseNeedsAllItsWords() {
+        assertEquals(List.of(), names("learning by doing in a deep team"));
+        assertEquals(List.of("dl"), names("deep learning"));
+    }
+
+    @Test
+    void storedMenuValuesAreLookedUpByCanonicalName() {
+        assertEquals(List.of("java", "os", "data_science", "cache_storage"),
+                names("java, os, data_science, cache_storage"));
+        assertEquals(List.of("customer_service", "backend", "data"), names("Customer Service, backend, data"));
+    }
+
+    @Test
+    void plainDataCountsOnlyAsMenuValue() {
+        assertEquals(List.of(), names("We process a lot of data every day"));
+        assertEquals(List.of("data"), names("data"));
+        assertEquals(List.of("data"), names("Looking for a Data Engineer"));
+    }
+
+    @Test
+    void unknownOrEmptyTextGivesEmptyMask() {
+        assertEquals(0L, SkillTaxonomy.encode(null));
+        assertEquals(0L, SkillTaxonomy.encode("  "));
+        assertEquals(0L, SkillTaxonomy.encode("gardening, cooking"));
+    }
+
+    @Test
+    void overlapCountsSharedEntries() {
+        long profile = SkillTaxonomy.encode("java, spring, sql, backend");
+        long opportunity = SkillTaxonomy.encode("Spring Boot developer, MySQL, Kotlin");
+        assertEquals(2, SkillTaxonomy.overlap(profile, opportunity));
+        assertEquals(0, SkillTaxonomy.overlap(profile, 0L));
+    }
+
+    @Test
+    void bitsArePermanent() {
+        // Stored masks depend on these; a failure here means existing rows would be misread
+        assertEquals(1L, SkillTaxonomy.encode("java"));
+        assertEquals(1L << 4, SkillTaxonomy.encode("spring"));
+        assertEquals(1L << 34, SkillTaxonomy.encode("backend"));
+        assertEquals(1L << 40, SkillTaxonomy.encode("data"));
+    }
+}
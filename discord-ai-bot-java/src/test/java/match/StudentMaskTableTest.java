@@ -0,0 +1,106 @@
+package match;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class StudentMaskTableTest {
+
+    private static final long JAVA = 1L;
+    private static final long SQL = 1L << 1;
+    private static final long DOCKER = 1L << 2;
+    private static final long PYTHON = 1L << 3;
+
+    @Test
+    void matchRequiresMinimumOverlap() {
+        StudentMaskTable table = new StudentMaskTable();
+        table.put("a", JAVA | SQL | DOCKER);
+        table.put("b", JAVA | PYTHON | DOCKER);
+        table.put("c", PYTHON | SQL | DOCKER);
+
+        Map<String, Integer> hits = table.match(JAVA | SQL, 2);
+        assertEquals(Map.of("a", 2), hits);
+    }
+
+    @Test
+    void minOverlapIsClampedToTheProfileSize() {
+        StudentMaskTable table = new StudentMaskTable();
+        table.put("single", JAVA);
+        table.put("pair", JAVA | PYTHON);
+
+        // A one-skill profile only needs its one skill; the two-skill profile needs both
+        assertEquals(Map.of("single", 1), table.match(JAVA | SQL, 3));
+        assertEquals(Map.of("single", 1, "pair", 2), table.match(JAVA | PYTHON, 3));
+    }
+
+    @Test
+    void emptyOpportunityMaskMatchesNobody() {
+        StudentMaskTable table = new StudentMaskTable();
+        table.put("a", JAVA);
+        assertTrue(table.match(0L, 1).isEmpty());
+    }
+
+    @Test
+    void putReplacesAndZeroMaskRemoves() {
+        StudentMaskTable table = new StudentMaskTable();
+        table.put("a", JAVA);
+        table.put("a", PYTHON);
+        assertEquals(1, table.size());
+        assertTrue(table.match(JAVA, 1).isEmpty());
+        assertEquals(Map.of("a", 1), table.match(PYTHON, 1));
+
+        table.put("a", 0L);
+        assertEquals(0, table.size());
+    }
+
+    @Test
+    void removeThenPutKeepsSlotsConsistent() {
+        StudentMaskTable table = new StudentMaskTable();
+        for (int i = 0; i < 40; i++) {
+            table.put("s" + i, (i % 2 == 0) ? JAVA : PYTHON);
+        }
+
+        // Removing from the middle moves the last entry into the freed slot
+        table.remove("s0");
+        table.remove("s17");
+        table.remove("missing");
+        assertEquals(38, table.size());
+
+        // The moved entries must still be found and updated in place
+        table.put("s39", JAVA);
+        table.put("s38", DOCKER);
+        table.put("new", JAVA);
+        assertEquals(39, table.size());
+
+        Map<String, Integer> java = table.match(JAVA, 1);
+        assertEquals(20, java.size()); // s2..s36 even (18), s39, new
+        assertTrue(java.containsKey("s39"));
+        assertFalse(java.containsKey("s38"));
+        assertFalse(java.containsKey("s0"));
+        assertEquals(Map.of("s38", 1), table.match(DOCKER, 1));
+
+        table.remove("s39");
+        assertFalse(table.match(JAVA, 1).containsKey("s39"));
+        assertEquals(38, table.size());
+    }
+
+    @Test
+    void replaceAllDropsPreviousEntries() {
+        StudentMaskTable table = new StudentMaskTable();
+        table.put("old", JAVA);
+
+        Map<String, Long> masks = new HashMap<>();
+        for (int i = 0; i < 100; i++) {
+            masks.put("s" + i, SQL);
+        }
+        masks.put("empty", 0L);
+        table.replaceAll(masks);
+
+        assertEquals(100, table.size());
+        assertTrue(table.match(JAVA, 1).isEmpty());
+        assertEquals(100, table.match(SQL, 1).size());
+    }
+}
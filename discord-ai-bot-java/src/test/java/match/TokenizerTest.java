@@ -0,0 +1,31 @@
+package match;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TokenizerTest {
+
+    @Test
+    void keepsPlusAndHashInsideTerms() {
+        assertEquals(List.of("c++", "c#", "java"), Tokenizer.tokenize("C++, C# and Java"));
+    }
+
+    @Test
+    void splitsOnPunctuationAndUnderscores() {
+        assertEquals(List.of("data", "science", "node", "js"), Tokenizer.tokenize("data_science / Node.js"));
+    }
+
+    @Test
+    void dropsStopWordsButKeepsDuplicates() {
+        assertEquals(List.of("java", "java", "developer"), Tokenizer.tokenize("The Java, the Java developer for you"));
+    }
+
+    @Test
+    void nullAndBlankGiveNoTerms() {
+        assertTrue(Tokenizer.tokenize(null).isEmpty());
+        assertTrue(Tokenizer.tokenize("   ").isEmpty());
+    }
+}
@@ -0,0 +1,42 @@
+package match;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TopKTest {
+
+    @Test
+    void keepsTheHighestScoresBestFirst() {
+        TopK<String> top = new TopK<>(3);
+        top.offer("a", 1);
+        top.offer("b", 5);
+        top.offer("c", 3);
+        top.offer("d", 4);
+        top.offer("e", 2);
+
+        List<String> items = top.toSortedList().stream().map(TopK.Scored::item).toList();
+        assertEquals(List.of("b", "d", "c"), items);
+        assertEquals(3, top.size());
+    }
+
+    @Test
+    void thresholdIsTheWeakestKeptScoreOnceFull() {
+        TopK<String> top = new TopK<>(2);
+        assertEquals(Double.NEGATIVE_INFINITY, top.threshold(), 0);
+        top.offer("a", 1);
+        assertEquals(Double.NEGATIVE_INFINITY, top.threshold(), 0);
+        top.offer("b", 7);
+        assertEquals(1, top.threshold(), 0);
+
+        top.offer("c", 1); // A tie does not replace the weakest
+        assertEquals(List.of("b", "a"), top.toSortedList().stream().map(TopK.Scored::item).toList());
+    }
+
+    @Test
+    void rejectsNonPositiveK() {
+        assertThrows(IllegalArgumentException.class, () -> new TopK<String>(0));
+    }
+}
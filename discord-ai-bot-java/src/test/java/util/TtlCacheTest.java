@@ -0,0 +1,115 @@
+package util;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TtlCacheTest {
+
+    private static TtlCache<String, String> cache(int maxEntries, long maxBytes, Duration ttl) {
+        return new TtlCache<>("test", maxEntries, maxBytes, ttl, String::length);
+    }
+
+    @Test
+    void entryExpiresAfterTtl() throws Exception {
+        TtlCache<String, String> cache = cache(10, 1000, Duration.ofMillis(50));
+        cache.put("a", "value");
+        assertEquals("value", cache.getIfPresent("a"));
+
+        Thread.sleep(80);
+        assertNull(cache.getIfPresent("a"));
+        assertEquals(1, cache.stats().expirations());
+        assertEquals(0, cache.stats().bytes());
+    }
+
+    @Test
+    void evictsLeastRecentlyUsedWhenCountLimitIsReached() {
+        TtlCache<String, String> cache = cache(2, 1000, Duration.ofMinutes(1));
+        cache.put("a", "1");
+        cache.put("b", "2");
+        cache.getIfPresent("a"); // "b" is now the least recently used
+        cache.put("c", "3");
+
+        assertEquals("1", cache.getIfPresent("a"));
+        assertNull(cache.getIfPresent("b"));
+        assertEquals("3", cache.getIfPresent("c"));
+        assertEquals(1, cache.stats().evictions());
+    }
+
+    @Test
+    void evictsUntilByteLimitIsRespected() {
+        TtlCache<String, String> cache = cache(10, 10, Duration.ofMinutes(1));
+        cache.put("a", "aaaa");
+        cache.put("b", "bbbb");
+        cache.put("c", "cccccc");
+
+        assertNull(cache.getIfPresent("a"));
+        assertEquals("bbbb", cache.getIfPresent("b"));
+        assertEquals("cccccc", cache.getIfPresent("c"));
+        assertEquals(10, cache.stats().bytes());
+    }
+
+    @Test
+    void oversizedValueReplacesPreviousValue() {
+        TtlCache<String, String> cache = cache(10, 5, Duration.ofMinutes(1));
+        cache.put("a", "old");
+        cache.put("a", "much too large");
+
+        assertNull(cache.getIfPresent("a"));
+        assertEquals(0, cache.stats().entries());
+        assertEquals(0, cache.stats().bytes());
+    }
+
+    @Test
+    void concurrentMissesRunTheLoaderOnce() throws Exception {
+        TtlCache<String, String> cache = cache(10, 1000, Duration.ofMinutes(1));
+        AtomicInteger loads = new AtomicInteger();
+        CountDownLatch loaderStarted = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+
+        ExecutorService pool = Executors.newFixedThreadPool(4);
+        try {
+            Future<String> first = pool.submit(() -> cache.get("k", () -> {
+                loads.incrementAndGet();
+                loaderStarted.countDown();
+                release.await();
+                return "loaded";
+            }));
+            assertTrue(loaderStarted.await(5, TimeUnit.SECONDS));
+
+            Future<String> second = pool.submit(() -> cache.get("k", () -> {
+                loads.incrementAndGet();
+                return "duplicate";
+            }));
+            // Give the second caller time to join the running load
+            while (cache.stats().coalesced() == 0) {
+                Thread.sleep(5);
+            }
+            release.countDown();
+
+            assertEquals("loaded", first.get(5, TimeUnit.SECONDS));
+            assertEquals("loaded", second.get(5, TimeUnit.SECONDS));
+            assertEquals(1, loads.get());
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    @Test
+    void failedLoadIsNotCached() {
+        TtlCache<String, String> cache = cache(10, 1000, Duration.ofMinutes(1));
+        assertThrows(IllegalStateException.class, () -> cache.get("k", () -> {
+            throw new IllegalStateException("boom");
+        }));
+        assertEquals(1, cache.stats().loadFailures());
+        assertNull(cache.getIfPresent("k"));
+    }
+}